@@ -0,0 +1,59 @@
+package org.example;
+
+/**
+ * Fast, bit-exact evaluation of the truncated getNearbyCoord() offsets
+ *
+ *   (int) (StrictMath.cos(angle) * distance), (int) (StrictMath.sin(angle) * distance)
+ *
+ * The angle is split into a table point p = k * 2pi / TABLE_SIZE and a remainder d = angle - p,
+ * which is exact in double arithmetic (Sterbenz), and sin/cos are rebuilt with the angle
+ * addition formulas from StrictMath values of p and short polynomials in d. That agrees with
+ * StrictMath to within a few ulps, far less than MARGIN. Truncating to an int can only differ
+ * when the product lies within MARGIN of an integer; those rare cases (and exact integers such
+ * as angle 0) fall back to StrictMath itself, so the result never differs from the reference.
+ */
+final class DungeonOffsetTable {
+
+    private static final int TABLE_SIZE = 1024;
+    private static final double STEP = 2 * Math.PI / TABLE_SIZE;
+    private static final double INVERSE_STEP = TABLE_SIZE / (2 * Math.PI);
+
+    // Products closer than this to an integer are recomputed with StrictMath
+    private static final double MARGIN = 1e-9;
+
+    // Table points and their StrictMath sin/cos, one entry past 2pi for rounding at the top
+    private static final double[] POINTS = new double[TABLE_SIZE + 2];
+    private static final double[] SIN = new double[TABLE_SIZE + 2];
+    private static final double[] COS = new double[TABLE_SIZE + 2];
+
+    static {
+        for (int k = 0; k < POINTS.length; k++) {
+            POINTS[k] = k * STEP;
+            SIN[k] = StrictMath.sin(POINTS[k]);
+            COS[k] = StrictMath.cos(POINTS[k]);
+        }
+    }
+
+    private DungeonOffsetTable() {
+    }
+
+    /**
+     * Truncated offsets of an angle in [0, 2pi) and a distance of at most a few hundred blocks
+     *
+     * @return The offsets packed as (x << 32) | (z & 0xFFFFFFFFL)
+     */
+    static long offsets(double angle, int distance) {
+        int k = (int) (angle * INVERSE_STEP);
+        double d = angle - POINTS[k];
+        double d2 = d * d;
+        double sinD = d - d * d2 * (1.0 / 6 - d2 * (1.0 / 120 - d2 * (1.0 / 5040)));
+        double cosD = 1 - d2 * (0.5 - d2 * (1.0 / 24 - d2 * (1.0 / 720)));
+
+        double x = (COS[k] * cosD - SIN[k] * sinD) * distance;
+        double z = (SIN[k] * cosD + COS[k] * sinD) * distance;
+
+        int xOffset = Math.abs(x - Math.rint(x)) > MARGIN ? (int) x : (int) (StrictMath.cos(angle) * distance);
+        int zOffset = Math.abs(z - Math.rint(z)) > MARGIN ? (int) z : (int) (StrictMath.sin(angle) * distance);
+        return ((long) xOffset << 32) | (zOffset & 0xFFFFFFFFL);
+    }
+}
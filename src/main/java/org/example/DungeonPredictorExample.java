@@ -1,8 +1,9 @@
 package org.example;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import org.example.DungeonSpawnPredictor.BasePointCandidate;
 import org.example.DungeonSpawnPredictor.BlockOffset;
-import org.example.DungeonSpawnPredictor.ChunkCoord;
 import org.example.DungeonSpawnPredictor.DungeonSpawn;
 
 /**
@@ -30,10 +31,8 @@ public class DungeonPredictorExample {
         int searchRadius = 3;    // Search 7x7 grid cells around spawn
 
         // Calculate grid parameters
-        int min = 8 * spawnFrequency / 10;
-        int max = 32 * spawnFrequency / 10;
-        min = Math.max(min, 2);
-        max = Math.max(max, 8);
+        GridParams grid = GridParams.of(spawnFrequency);
+        int max = grid.cellSize;
 
         System.out.println("Search Parameters:");
         System.out.println("  Spawn Frequency: " + spawnFrequency);
@@ -43,7 +42,7 @@ public class DungeonPredictorExample {
 
         // Get base spawn points (these are accurate - the chunk spawn locations)
         List<DungeonSpawn> spawns = DungeonSpawnPredictor.predictDungeonBasePoints(
-            worldSeed, spawnFrequency, searchRadius);
+            worldSeed, grid, searchRadius);
 
         // Sort by distance from spawn
         spawns.sort((a, b) -> {
@@ -57,6 +56,12 @@ public class DungeonPredictorExample {
         System.out.println("Expected dungeon near: x:-5, z:-620");
         System.out.println();
 
+        // Base points whose 40-100 block offset annulus contains the expected location
+        int expectedX = -5;
+        int expectedZ = -620;
+        List<BasePointCandidate> covering =
+            DungeonSpawnPredictor.findBasePointsCovering(worldSeed, grid, expectedX, expectedZ);
+
         // Print all dungeon base spawn points
         int count = 0;
         for (DungeonSpawn spawn : spawns) {
@@ -66,19 +71,12 @@ public class DungeonPredictorExample {
             // Predict tower type based on the base spawn point
             String towerType = DungeonSpawnPredictor.predictTowerType(worldSeed, spawn.blockX, spawn.blockZ);
 
-            // Check if this base point could reach expected location (-5, -620)
-            int expectedX = -5;
-            int expectedZ = -620;
-            double distToExpected = Math.sqrt(
-                (spawn.blockX - expectedX) * (spawn.blockX - expectedX) +
-                (spawn.blockZ - expectedZ) * (spawn.blockZ - expectedZ));
-
-            // Mark if within 100 blocks (max offset range)
+            // Mark the base points that could have produced the expected dungeon
             String marker = "";
-            if (distToExpected <= 100) {
-                marker = " *** COULD REACH EXPECTED (within 100 blocks) ***";
-            } else if (distToExpected <= 150) {
-                marker = " ** NEARBY **";
+            for (BasePointCandidate candidate : covering) {
+                if (candidate.chunk.equals(spawn.chunk)) {
+                    marker = " *** COULD REACH EXPECTED (offset " + candidate.offsetX + ", " + candidate.offsetZ + ") ***";
+                }
             }
 
             System.out.printf("%3d. [%-8s] Base Point: (%6d, %6d) - Distance from spawn: %6.0f blocks - Chunk: (%4d, %4d) - Search radius: 40-100 blocks%s\n",
@@ -86,6 +84,14 @@ public class DungeonPredictorExample {
         }
 
         System.out.println();
+        System.out.println("Base points that could produce a dungeon at (" + expectedX + ", " + expectedZ + "):");
+        for (BasePointCandidate candidate : covering) {
+            System.out.println("  " + candidate);
+        }
+        if (covering.isEmpty()) {
+            System.out.println("  (none)");
+        }
+        System.out.println();
     }
 
     /**
@@ -164,20 +170,24 @@ public class DungeonPredictorExample {
 
         int spawnFrequency = 10;
 
-        // Convert center to chunk, then to grid cell
-        int centerChunkX = centerX >> 4;
-        int centerChunkZ = centerZ >> 4;
-
         System.out.println("Creating map centered at: " + centerX + ", " + centerZ);
         System.out.println("Search radius: " + radius + " grid cells\n");
 
-        List<DungeonSpawn> spawns = DungeonSpawnPredictor.predictDungeonSpawns(
-            worldSeed, spawnFrequency, radius);
-
         // Filter to dungeons within actual coordinate range
         int maxDist = radius * 32 * 16; // Grid cells * chunks * blocks
         int count = 0;
 
+        // Only the grid cells that can reach the square around the center are evaluated
+        List<DungeonSpawn> spawns = DungeonSpawnPredictor.predictDungeonsInBox(worldSeed, spawnFrequency,
+                centerX - maxDist, centerZ - maxDist, centerX + maxDist, centerZ + maxDist)
+            .stream()
+            .filter(spawn -> {
+                double dx = spawn.blockX - centerX;
+                double dz = spawn.blockZ - centerZ;
+                return Math.sqrt(dx * dx + dz * dz) <= maxDist;
+            })
+            .collect(Collectors.toList());
+
         System.out.println("Dungeons within " + maxDist + " blocks:");
         System.out.println("----------------------------------------");
 
@@ -186,11 +196,9 @@ public class DungeonPredictorExample {
             int dz = spawn.blockZ - centerZ;
             double dist = Math.sqrt(dx * dx + dz * dz);
 
-            if (dist <= maxDist) {
-                count++;
-                System.out.printf("%3d. [%-8s] (%6d, %6d) - %4.0f blocks - Chunk (%4d, %4d)\n",
-                    count, spawn.towerType, spawn.blockX, spawn.blockZ, dist, spawn.chunk.x, spawn.chunk.z);
-            }
+            count++;
+            System.out.printf("%3d. [%-8s] (%6d, %6d) - %4.0f blocks - Chunk (%4d, %4d)\n",
+                count, spawn.towerType, spawn.blockX, spawn.blockZ, dist, spawn.chunk.x, spawn.chunk.z);
         }
 
         System.out.println("\nTotal dungeons in range: " + count);
@@ -206,10 +214,9 @@ public class DungeonPredictorExample {
         int spawnFrequency = 10;
 
         // Calculate grid parameters
-        int min = 8 * spawnFrequency / 10;
-        int max = 32 * spawnFrequency / 10;
-        min = Math.max(min, 2);
-        max = Math.max(max, 8);
+        GridParams grid = GridParams.of(spawnFrequency);
+        int min = grid.minOffset;
+        int max = grid.cellSize;
 
         System.out.println("Spawn Frequency: " + spawnFrequency);
         System.out.println("Grid Cell Size: " + max + " chunks (" + (max * 16) + " blocks)");
@@ -223,12 +230,11 @@ public class DungeonPredictorExample {
 
         for (int gridX = -1; gridX <= 1; gridX++) {
             for (int gridZ = -1; gridZ <= 1; gridZ++) {
-                long seed = (gridX * 341873128712L + gridZ * 132897987541L +
-                            worldSeed + 10387312) * 14357617;
-                java.util.Random rand = new java.util.Random(seed);
+                long seed = GridRandom.gridSeed(worldSeed, gridX, gridZ);
+                long offsets = GridRandom.cellOffsets(seed, grid);
 
-                int m = gridX * max + rand.nextInt(max - min);
-                int n = gridZ * max + rand.nextInt(max - min);
+                int m = gridX * max + (int) (offsets >> 32);
+                int n = gridZ * max + (int) offsets;
 
                 int blockX = m * 16 + 8;
                 int blockZ = n * 16 + 8;
@@ -260,18 +266,12 @@ public class DungeonPredictorExample {
         System.out.println("Prediction: " + (predicted ? "WILL SPAWN" : "Won't spawn"));
 
         // Verify by checking all spawns in area
-        List<ChunkCoord> allSpawns = DungeonSpawnPredictor.predictDungeonChunks(
-            worldSeed, spawnFrequency, 5);
+        long[] allSpawns = new long[(int) DungeonSpawnPredictor.gridCellCount(5)];
+        int count = DungeonSpawnPredictor.predictDungeonChunksPacked(
+            worldSeed, GridParams.of(spawnFrequency), 5, allSpawns, 0);
 
-        ChunkCoord testChunk = new ChunkCoord(testChunkX, testChunkZ);
-        boolean foundInList = false;
-
-        for (ChunkCoord spawn : allSpawns) {
-            if (spawn.equals(testChunk)) {
-                foundInList = true;
-                break;
-            }
-        }
+        LongHashSet spawnSet = new LongHashSet(allSpawns, 0, count);
+        boolean foundInList = spawnSet.contains(DungeonSpawnPredictor.packChunk(testChunkX, testChunkZ));
 
         System.out.println("Found in spawn list: " + foundInList);
         System.out.println("Verification: " + (predicted == foundInList ? "PASS ✓" : "FAIL ✗"));
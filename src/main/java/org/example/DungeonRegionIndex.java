@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bitmap index of dungeon spawn chunks, one tile per Minecraft region (32x32 chunks).
+ *
+ * A tile is built on first access from the handful of grid cells overlapping its region
+ * (at most 25 at the smallest cell size), after which isDungeonChunk() is a shift, a mask
+ * and a bit test. Tiles are immutable and published through an AtomicReferenceArray, so
+ * lookups never lock; two threads missing the same tile at once just build it twice.
+ *
+ * The table is direct-mapped with a fixed number of slots: a tile whose slot is taken by
+ * another region replaces it. Memory use is bounded by the slot count however far players
+ * walk, and an evicted tile is simply rebuilt when its region is visited again.
+ */
+public final class DungeonRegionIndex {
+
+    /**
+     * Default number of tile slots, about 160 KB of tiles when full
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // log2 of the region size in chunks
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+
+    /**
+     * Dungeon bits of one region, bit (localX << 5 | localZ)
+     */
+    private static final class Tile {
+        final long region;
+        final long[] bits;
+
+        Tile(long region, long[] bits) {
+            this.region = region;
+            this.bits = bits;
+        }
+    }
+
+    private final long worldSeed;
+    private final GridParams grid;
+    private final AtomicReferenceArray<Tile> tiles;
+    private final int slotShift;
+
+    public DungeonRegionIndex(long worldSeed, int spawnFrequency) {
+        this(worldSeed, GridParams.of(spawnFrequency), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Number of tile slots, rounded up to a power of two of at least 2
+     */
+    public DungeonRegionIndex(long worldSeed, GridParams grid, int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        // At least one slot bit: a shift by 64 would be a shift by 0
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.worldSeed = worldSeed;
+        this.grid = grid;
+        this.tiles = new AtomicReferenceArray<>(1 << bits);
+        this.slotShift = 64 - bits;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public GridParams getGrid() {
+        return grid;
+    }
+
+    /**
+     * Same answer as DungeonSpawnPredictor.willDungeonSpawnInChunk()
+     */
+    public boolean isDungeonChunk(int chunkX, int chunkZ) {
+        long[] bits = tile(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT).bits;
+        int bit = ((chunkX & REGION_MASK) << REGION_SHIFT) | (chunkZ & REGION_MASK);
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Chunk variant taking a chunk packed with DungeonSpawnPredictor.packChunk()
+     */
+    public boolean isDungeonChunk(long packedChunk) {
+        return isDungeonChunk(DungeonSpawnPredictor.unpackChunkX(packedChunk),
+            DungeonSpawnPredictor.unpackChunkZ(packedChunk));
+    }
+
+    /**
+     * Drops every cached tile
+     */
+    public void clear() {
+        for (int i = 0; i < tiles.length(); i++) {
+            tiles.set(i, null);
+        }
+    }
+
+    /**
+     * Number of tile slots
+     */
+    int slotCount() {
+        return tiles.length();
+    }
+
+    /**
+     * Slot the tile of a region is kept in
+     */
+    int slotOf(int regionX, int regionZ) {
+        return slot(packRegion(regionX, regionZ));
+    }
+
+    /**
+     * true if the tile of a region is currently cached
+     */
+    boolean hasTile(int regionX, int regionZ) {
+        long region = packRegion(regionX, regionZ);
+        Tile tile = tiles.get(slot(region));
+        return tile != null && tile.region == region;
+    }
+
+    private static long packRegion(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    private int slot(long region) {
+        return (int) ((region * 0x9E3779B97F4A7C15L) >>> slotShift);
+    }
+
+    private Tile tile(int regionX, int regionZ) {
+        long region = packRegion(regionX, regionZ);
+        int slot = slot(region);
+        Tile tile = tiles.get(slot);
+        if (tile == null || tile.region != region) {
+            tile = buildTile(region, regionX, regionZ);
+            tiles.set(slot, tile);
+        }
+        return tile;
+    }
+
+    private Tile buildTile(long region, int regionX, int regionZ) {
+        int minChunkX = regionX << REGION_SHIFT;
+        int minChunkZ = regionZ << REGION_SHIFT;
+        int minGridX = grid.gridIndex(minChunkX);
+        int minGridZ = grid.gridIndex(minChunkZ);
+        int maxGridX = grid.gridIndex(minChunkX + REGION_MASK);
+        int maxGridZ = grid.gridIndex(minChunkZ + REGION_MASK);
+
+        long[] bits = new long[(1 << (2 * REGION_SHIFT)) / 64];
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            for (int gridZ = minGridZ; gridZ <= maxGridZ; gridZ++) {
+                long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ);
+                int chunkX = DungeonSpawnPredictor.unpackChunkX(chunk);
+                int chunkZ = DungeonSpawnPredictor.unpackChunkZ(chunk);
+                if (chunkX >> REGION_SHIFT == regionX && chunkZ >> REGION_SHIFT == regionZ) {
+                    int bit = ((chunkX & REGION_MASK) << REGION_SHIFT) | (chunkZ & REGION_MASK);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return new Tile(region, bits);
+    }
+}
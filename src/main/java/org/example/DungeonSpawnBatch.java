@@ -0,0 +1,243 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+
+/**
+ * Reusable structure-of-arrays holder of predicted dungeon spawns.
+ *
+ * Spawns are kept in parallel columns (chunkX, chunkZ, blockX, blockZ as ints and the TowerType
+ * ordinal as a byte) instead of one DungeonSpawn, ChunkCoord and String per spawn. The batch
+ * overloads of the DungeonSpawnPredictor queries clear a batch and fill it; the columns only
+ * grow, so a batch reused across calls reaches a steady state where filling it creates no
+ * garbage.
+ *
+ * Every DungeonSpawnPredictor query returning DungeonSpawn objects has a batch overload taking
+ * GridParams: predictDungeonSpawns, predictDungeonBasePoints, findNearestDungeon, findKNearest,
+ * findWithinRadius and predictDungeonsInBox. So do findBasePointsCovering (one predicted spawn
+ * per candidate) and NearestDungeonBatch.findNearest.
+ *
+ * Not thread-safe; use one batch per thread.
+ */
+public final class DungeonSpawnBatch {
+
+    /**
+     * Tower type column value of spawns without a predicted type (base points)
+     */
+    public static final byte UNKNOWN_TOWER = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] chunkX;
+    private int[] chunkZ;
+    private int[] blockX;
+    private int[] blockZ;
+    private byte[] towerType;
+    private int size;
+
+    // Scratch space of sortByDistance()
+    private long[] sortKeys = new long[0];
+    private int[] sortOrder = new int[0];
+    private int[] sortScratch = new int[0];
+
+    public DungeonSpawnBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity Number of spawns the batch holds before its columns grow
+     */
+    public DungeonSpawnBatch(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative");
+        }
+        this.chunkX = new int[initialCapacity];
+        this.chunkZ = new int[initialCapacity];
+        this.blockX = new int[initialCapacity];
+        this.blockZ = new int[initialCapacity];
+        this.towerType = new byte[initialCapacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return chunkX.length;
+    }
+
+    /**
+     * Removes every spawn, keeping the columns for reuse
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Grows the columns to hold at least capacity spawns
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= chunkX.length) {
+            return;
+        }
+        int grown = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(capacity, chunkX.length * 3L / 2 + 1));
+        chunkX = Arrays.copyOf(chunkX, grown);
+        chunkZ = Arrays.copyOf(chunkZ, grown);
+        blockX = Arrays.copyOf(blockX, grown);
+        blockZ = Arrays.copyOf(blockZ, grown);
+        towerType = Arrays.copyOf(towerType, grown);
+    }
+
+    /**
+     * Appends a spawn
+     *
+     * @param towerType TowerType ordinal, or UNKNOWN_TOWER
+     */
+    public void add(int chunkX, int chunkZ, int blockX, int blockZ, int towerType) {
+        if (size == this.chunkX.length) {
+            ensureCapacity(size + 1);
+        }
+        this.chunkX[size] = chunkX;
+        this.chunkZ[size] = chunkZ;
+        this.blockX[size] = blockX;
+        this.blockZ[size] = blockZ;
+        this.towerType[size] = (byte) towerType;
+        size++;
+    }
+
+    public int getChunkX(int index) {
+        return chunkX[checkIndex(index)];
+    }
+
+    public int getChunkZ(int index) {
+        return chunkZ[checkIndex(index)];
+    }
+
+    public int getBlockX(int index) {
+        return blockX[checkIndex(index)];
+    }
+
+    public int getBlockZ(int index) {
+        return blockZ[checkIndex(index)];
+    }
+
+    /**
+     * TowerType ordinal of a spawn, or UNKNOWN_TOWER
+     */
+    public int getTowerTypeOrdinal(int index) {
+        return towerType[checkIndex(index)];
+    }
+
+    /**
+     * Tower type of a spawn, or null if it has none
+     */
+    public TowerType getTowerType(int index) {
+        int ordinal = getTowerTypeOrdinal(index);
+        return ordinal == UNKNOWN_TOWER ? null : TowerType.byOrdinal(ordinal);
+    }
+
+    /**
+     * Copies a spawn into a DungeonSpawn object
+     */
+    public DungeonSpawn get(int index) {
+        ChunkCoord chunk = new ChunkCoord(getChunkX(index), getChunkZ(index));
+        TowerType type = getTowerType(index);
+        return type == null
+            ? new DungeonSpawn(chunk, blockX[index], blockZ[index])
+            : new DungeonSpawn(chunk, blockX[index], blockZ[index], type);
+    }
+
+    /**
+     * Copies every spawn into DungeonSpawn objects, in batch order
+     */
+    public List<DungeonSpawn> toList() {
+        List<DungeonSpawn> spawns = new ArrayList<DungeonSpawn>(size);
+        for (int i = 0; i < size; i++) {
+            spawns.add(get(i));
+        }
+        return spawns;
+    }
+
+    /**
+     * Visits every spawn in batch order without creating objects
+     */
+    public void forEach(SpawnStore.SpawnVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.accept(i, chunkX[i], chunkZ[i], blockX[i], blockZ[i], towerType[i]);
+        }
+    }
+
+    /**
+     * Stably sorts the spawns by squared block distance to (x, z), nearest first. Uses scratch
+     * arrays kept with the batch, so a reused batch sorts without allocating.
+     */
+    void sortByDistance(int x, int z) {
+        if (sortKeys.length < size) {
+            sortKeys = new long[chunkX.length];
+            sortOrder = new int[chunkX.length];
+            sortScratch = new int[chunkX.length];
+        }
+        long[] keys = sortKeys;
+        for (int i = 0; i < size; i++) {
+            // The double distance of SpawnSearch.distanceSq(), which doesn't overflow at the int
+            // edges; the bits of a non-negative double order the same as its value
+            double dx = (double) blockX[i] - x;
+            double dz = (double) blockZ[i] - z;
+            keys[i] = Double.doubleToRawLongBits(dx * dx + dz * dz);
+            sortOrder[i] = i;
+        }
+
+        // Bottom-up merge sort of the index permutation, stable on equal distances
+        int[] from = sortOrder;
+        int[] to = sortScratch;
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int middle = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int left = low;
+                int right = middle;
+                for (int out = low; out < high; out++) {
+                    if (right >= high || (left < middle && keys[from[left]] <= keys[from[right]])) {
+                        to[out] = from[left++];
+                    } else {
+                        to[out] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        // Gather every column through the key array, which is no longer needed
+        permute(chunkX, from, keys);
+        permute(chunkZ, from, keys);
+        permute(blockX, from, keys);
+        permute(blockZ, from, keys);
+        for (int i = 0; i < size; i++) {
+            keys[i] = towerType[from[i]];
+        }
+        for (int i = 0; i < size; i++) {
+            towerType[i] = (byte) keys[i];
+        }
+    }
+
+    private void permute(int[] column, int[] order, long[] scratch) {
+        for (int i = 0; i < size; i++) {
+            scratch[i] = column[order[i]];
+        }
+        for (int i = 0; i < size; i++) {
+            column[i] = (int) scratch[i];
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + " spawns");
+        }
+        return index;
+    }
+}
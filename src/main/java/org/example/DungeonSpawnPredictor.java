@@ -1,8 +1,17 @@
 package org.example;
 
+import java.nio.BufferOverflowException;
+import java.nio.LongBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility class to predict where Roguelike Dungeons will spawn based on world seed.
@@ -14,6 +23,19 @@ import java.util.Random;
  */
 public class DungeonSpawnPredictor {
 
+    // getNearbyCoord() distance range of the dungeon entrance from the spawn base point
+    private static final int NEARBY_MIN = 40;
+    private static final int NEARBY_MAX = 100;
+    private static final int NEARBY_REJECTION_THRESHOLD =
+        (int) ((1L << 31) / (NEARBY_MAX - NEARBY_MIN) * (NEARBY_MAX - NEARBY_MIN));
+
+    // Grid cells evaluated per GridCursor.fillRow() call when results go through a row buffer
+    private static final int ROW_BLOCK = 4096;
+
+    // Size of the recent cell table of willDungeonSpawnInChunks()
+    private static final int RECENT_CELL_BITS = 6;
+    private static final int RECENT_CELLS = 1 << RECENT_CELL_BITS;
+
     /**
      * Represents a chunk coordinate where a dungeon may spawn
      */
@@ -51,7 +73,8 @@ public class DungeonSpawnPredictor {
 
         @Override
         public int hashCode() {
-            return x * 31 + z;
+            // x * 31 + z collides all over the spawn lattice; mix the packed coordinates instead
+            return Long.hashCode(LongHashSet.mix(packChunk(x, z)));
         }
     }
 
@@ -64,17 +87,27 @@ public class DungeonSpawnPredictor {
         public final int blockZ;
         public final int approximateY;
         public final String towerType; // Type of tower/dungeon variant
+        public final TowerType type;   // Same as towerType, null if unknown or not a TowerType name
 
         public DungeonSpawn(ChunkCoord chunk, int blockX, int blockZ) {
-            this(chunk, blockX, blockZ, "UNKNOWN");
+            this(chunk, blockX, blockZ, "UNKNOWN", null);
         }
 
         public DungeonSpawn(ChunkCoord chunk, int blockX, int blockZ, String towerType) {
+            this(chunk, blockX, blockZ, towerType, TowerType.byName(towerType));
+        }
+
+        public DungeonSpawn(ChunkCoord chunk, int blockX, int blockZ, TowerType type) {
+            this(chunk, blockX, blockZ, type.name(), type);
+        }
+
+        private DungeonSpawn(ChunkCoord chunk, int blockX, int blockZ, String towerType, TowerType type) {
             this.chunk = chunk;
             this.blockX = blockX;
             this.blockZ = blockZ;
             this.approximateY = 50; // TOPLEVEL constant
             this.towerType = towerType;
+            this.type = type;
         }
 
         @Override
@@ -99,6 +132,34 @@ public class DungeonSpawnPredictor {
         }
     }
 
+    /**
+     * A spawn base point that could have produced a dungeon at a given block
+     */
+    public static class BasePointCandidate {
+        public final ChunkCoord chunk;
+        public final int baseX;
+        public final int baseZ;
+        public final int offsetX;  // Offset needed to get from the base point to the block
+        public final int offsetZ;
+        public final boolean matchesPrediction; // true if predictDungeonOffset() gives exactly that offset
+
+        public BasePointCandidate(ChunkCoord chunk, int baseX, int baseZ, int offsetX, int offsetZ,
+                                  boolean matchesPrediction) {
+            this.chunk = chunk;
+            this.baseX = baseX;
+            this.baseZ = baseZ;
+            this.offsetX = offsetX;
+            this.offsetZ = offsetZ;
+            this.matchesPrediction = matchesPrediction;
+        }
+
+        @Override
+        public String toString() {
+            return "Base point (" + baseX + ", " + baseZ + ") + offset (" + offsetX + ", " + offsetZ + ")"
+                + (matchesPrediction ? " [predicted]" : "") + " in " + chunk;
+        }
+    }
+
     /**
      * Predicts all dungeon spawn chunk coordinates within a search radius.
      * This uses the exact algorithm from Dungeon.canSpawnInChunk()
@@ -113,270 +174,1969 @@ public class DungeonSpawnPredictor {
             int spawnFrequency,
             int searchRadius) {
 
-        List<ChunkCoord> spawns = new ArrayList<ChunkCoord>();
+        return predictDungeonChunks(worldSeed, GridParams.of(spawnFrequency), searchRadius);
+    }
 
-        // Calculate grid parameters (from canSpawnInChunk)
-        int min = 8 * spawnFrequency / 10;
-        int max = 32 * spawnFrequency / 10;
-        min = min < 2 ? 2 : min;
-        max = max < 8 ? 8 : max;
+    /**
+     * Predicts all dungeon spawn chunk coordinates within a search radius.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search in each direction from spawn
+     * @return List of chunk coordinates where dungeons will spawn
+     */
+    public static List<ChunkCoord> predictDungeonChunks(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius) {
 
         // Search grid cells around spawn
-        for (int gridX = -searchRadius; gridX <= searchRadius; gridX++) {
-            for (int gridZ = -searchRadius; gridZ <= searchRadius; gridZ++) {
-
-                // This matches the getSeededRandom call in the original code
-                // Uses Minecraft's world.setRandomSeed(a, b, c) algorithm
-                // Formula: (a * 341873128712L + b * 132897987541L + worldSeed + c) * 14357617
-                long seed = (gridX * 341873128712L + gridZ * 132897987541L + worldSeed + 10387312) * 14357617;
-                Random rand = new Random(seed);
+        return predictDungeonChunksInGrid(worldSeed, grid,
+            -searchRadius, -searchRadius, searchRadius, searchRadius);
+    }
 
-                // Calculate base position (grid cell * max)
-                int m = gridX * max;
-                int n = gridZ * max;
+    /**
+     * Predicts the dungeon spawn chunk of every grid cell in a rectangle of grid cells.
+     * Cells are visited in row-major order (gridX outer, gridZ inner).
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param minGridX Lowest grid X index (inclusive)
+     * @param minGridZ Lowest grid Z index (inclusive)
+     * @param maxGridX Highest grid X index (inclusive)
+     * @param maxGridZ Highest grid Z index (inclusive)
+     * @return List of chunk coordinates where dungeons will spawn
+     */
+    public static List<ChunkCoord> predictDungeonChunksInGrid(
+            long worldSeed,
+            int spawnFrequency,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ) {
 
-                // Add random offset within the cell
-                m += rand.nextInt(max - min);
-                n += rand.nextInt(max - min);
+        return predictDungeonChunksInGrid(worldSeed, GridParams.of(spawnFrequency),
+            minGridX, minGridZ, maxGridX, maxGridZ);
+    }
 
-                spawns.add(new ChunkCoord(m, n));
-            }
+    /**
+     * Predicts the dungeon spawn chunk of every grid cell in a rectangle of grid cells.
+     * Cells are visited in row-major order (gridX outer, gridZ inner).
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param minGridX Lowest grid X index (inclusive)
+     * @param minGridZ Lowest grid Z index (inclusive)
+     * @param maxGridX Highest grid X index (inclusive)
+     * @param maxGridZ Highest grid Z index (inclusive)
+     * @return List of chunk coordinates where dungeons will spawn
+     */
+    public static List<ChunkCoord> predictDungeonChunksInGrid(
+            long worldSeed,
+            GridParams grid,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ) {
+
+        long cells = gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(cells + " grid cells don't fit in a List, use predictDungeonChunksPacked");
         }
 
-        return spawns;
+        long[] packed = new long[(int) cells];
+        predictDungeonChunksPacked(worldSeed, grid, minGridX, minGridZ, maxGridX, maxGridZ, packed, 0);
+        return toChunkCoords(packed, packed.length);
     }
 
     /**
-     * Check if a specific chunk will have a dungeon spawn.
-     * This is the exact reverse-engineered algorithm from Dungeon.canSpawnInChunk()
+     * Predicts the dungeon spawn chunks of the grid cells exactly ring cells away
+     * (Chebyshev distance) from a center grid cell.
+     *
+     * The ring is walked clockwise starting at its (-ring, -ring) corner:
+     * along +X, then +Z, then -X, then -Z. Ring 0 is the center cell alone.
      *
      * @param worldSeed The Minecraft world seed
-     * @param chunkX Chunk X coordinate
-     * @param chunkZ Chunk Z coordinate
      * @param spawnFrequency The spawn frequency config value (default: 10)
-     * @return true if a dungeon will spawn in this chunk
+     * @param centerGridX Grid X index of the center cell
+     * @param centerGridZ Grid Z index of the center cell
+     * @param ring Ring index, 0 or greater
+     * @return List of chunk coordinates where dungeons will spawn
      */
-    public static boolean willDungeonSpawnInChunk(
+    public static List<ChunkCoord> predictDungeonChunksInRing(
             long worldSeed,
-            int chunkX,
-            int chunkZ,
-            int spawnFrequency) {
-
-        // Calculate grid parameters
-        int min = 8 * spawnFrequency / 10;
-        int max = 32 * spawnFrequency / 10;
-        min = min < 2 ? 2 : min;
-        max = max < 8 ? 8 : max;
+            int spawnFrequency,
+            int centerGridX,
+            int centerGridZ,
+            int ring) {
 
-        // Normalize negative coordinates
-        int tempX = chunkX < 0 ? chunkX - (max - 1) : chunkX;
-        int tempZ = chunkZ < 0 ? chunkZ - (max - 1) : chunkZ;
+        return predictDungeonChunksInRing(worldSeed, GridParams.of(spawnFrequency), centerGridX, centerGridZ, ring);
+    }
 
-        // Get grid cell
-        int m = tempX / max;
-        int n = tempZ / max;
+    /**
+     * Predicts the dungeon spawn chunks of the grid cells exactly ring cells away
+     * (Chebyshev distance) from a center grid cell.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param centerGridX Grid X index of the center cell
+     * @param centerGridZ Grid Z index of the center cell
+     * @param ring Ring index, 0 or greater
+     * @return List of chunk coordinates where dungeons will spawn
+     */
+    public static List<ChunkCoord> predictDungeonChunksInRing(
+            long worldSeed,
+            GridParams grid,
+            int centerGridX,
+            int centerGridZ,
+            int ring) {
 
-        // Create seeded random for this grid cell
-        // Uses Minecraft's world.setRandomSeed(a, b, c) algorithm
-        long seed = (m * 341873128712L + n * 132897987541L + worldSeed + 10387312) * 14357617;
-        Random rand = new Random(seed);
+        if (ring < 0) {
+            throw new IllegalArgumentException("ring must not be negative");
+        }
 
-        // Calculate base position
-        m *= max;
-        n *= max;
+        long[] packed = new long[ring == 0 ? 1 : 8 * ring];
+        int count = predictDungeonChunksInRingPacked(worldSeed, grid, centerGridX, centerGridZ, ring, packed, 0);
+        return toChunkCoords(packed, count);
+    }
 
-        // Add random offset
-        m += rand.nextInt(max - min);
-        n += rand.nextInt(max - min);
+    /**
+     * Packs a chunk coordinate into a long: x in the high 32 bits, z in the low 32 bits.
+     * This is the format of every *Packed method.
+     */
+    public static long packChunk(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
 
-        // Check if this chunk matches
-        return (chunkX == m && chunkZ == n);
+    /**
+     * @return The chunk X coordinate of a packed chunk
+     */
+    public static int unpackChunkX(long packedChunk) {
+        return (int) (packedChunk >> 32);
     }
 
     /**
-     * Predicts the approximate block offset from the chunk spawn point.
-     * This uses the algorithm from Dungeon.generateNear() and getNearbyCoord()
-     *
-     * Note: The actual dungeon may not spawn here if the location fails validation,
-     * but this gives the first attempted location.
-     *
-     * @param worldSeed The world seed
-     * @param chunkX Chunk X coordinate
-     * @param chunkZ Chunk Z coordinate
-     * @return BlockOffset indicating where the dungeon entrance will likely be
+     * @return The chunk Z coordinate of a packed chunk
      */
-    public static BlockOffset predictDungeonOffset(long worldSeed, int chunkX, int chunkZ) {
-        // Convert chunk to block coordinates (center of chunk + 4 from spawnInChunk)
-        int x = chunkX * 16 + 4;
-        int z = chunkZ * 16 + 4;
+    public static int unpackChunkZ(long packedChunk) {
+        return (int) packedChunk;
+    }
 
-        // Use the same seed calculation as Dungeon.getRandom()
-        long seed = worldSeed * x * z;
-        Random rand = new Random(seed);
+    /**
+     * Number of grid cells (and so of predicted spawns) in a search radius: (2r+1)^2
+     */
+    public static long gridCellCount(int searchRadius) {
+        return gridCellCount(-searchRadius, -searchRadius, searchRadius, searchRadius);
+    }
 
-        // getNearbyCoord uses 40-100 block radius
-        int min = 40;
-        int max = 100;
-        int distance = min + rand.nextInt(max - min);
-        double angle = rand.nextDouble() * 2 * Math.PI;
+    /**
+     * Number of grid cells in a rectangle of grid cells, 0 if it is empty
+     */
+    public static long gridCellCount(int minGridX, int minGridZ, int maxGridX, int maxGridZ) {
+        if (minGridX > maxGridX || minGridZ > maxGridZ) {
+            return 0;
+        }
+        return ((long) maxGridX - minGridX + 1) * ((long) maxGridZ - minGridZ + 1);
+    }
 
-        int xOffset = (int) (Math.cos(angle) * distance);
-        int zOffset = (int) (Math.sin(angle) * distance);
+    /**
+     * Packed variant of predictDungeonChunks(). Writes gridCellCount(searchRadius) packed chunks
+     * in the same order as the List variant, without creating any objects.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search in each direction from spawn
+     * @param out Receives the packed chunk coordinates (see packChunk)
+     * @param offset Index in out of the first result
+     * @return Number of values written
+     */
+    public static int predictDungeonChunksPacked(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius,
+            long[] out,
+            int offset) {
 
-        return new BlockOffset(xOffset, zOffset);
+        return predictDungeonChunksPacked(worldSeed, grid,
+            -searchRadius, -searchRadius, searchRadius, searchRadius, out, offset);
     }
 
     /**
-     * Predicts dungeon spawn base points (chunk spawn locations).
-     * These are the initial positions (chunk * 16 + 4) before the random 40-100 block offset.
-     * The actual dungeon will be 40-100 blocks away from these points in a random direction.
+     * Packed variant of predictDungeonChunksInGrid(), in the same row-major order.
      *
      * @param worldSeed The Minecraft world seed
-     * @param spawnFrequency The spawn frequency config value (default: 10)
-     * @param searchRadius How many grid cells to search
-     * @return List of predicted dungeon spawn base points
+     * @param grid The grid parameters for the spawn frequency
+     * @param minGridX Lowest grid X index (inclusive)
+     * @param minGridZ Lowest grid Z index (inclusive)
+     * @param maxGridX Highest grid X index (inclusive)
+     * @param maxGridZ Highest grid Z index (inclusive)
+     * @param out Receives the packed chunk coordinates (see packChunk)
+     * @param offset Index in out of the first result
+     * @return Number of values written
+     * @throws IllegalArgumentException if out can't hold every result
      */
-    public static List<DungeonSpawn> predictDungeonBasePoints(
+    public static int predictDungeonChunksPacked(
             long worldSeed,
-            int spawnFrequency,
-            int searchRadius) {
+            GridParams grid,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ,
+            long[] out,
+            int offset) {
+
+        long cells = gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        if (cells > out.length - (long) offset) {
+            throw new IllegalArgumentException("Output has room for " + (out.length - offset) + " values, " + cells + " needed");
+        }
+        if (cells == 0) {
+            return 0;
+        }
 
-        List<DungeonSpawn> spawns = new ArrayList<DungeonSpawn>();
-        List<ChunkCoord> chunks = predictDungeonChunks(worldSeed, spawnFrequency, searchRadius);
+        // The cursor carries the seed and chunk origin forward, so each cell costs only adds
+        // plus the LCG steps. See GridCursor for the seed formula.
+        GridCursor cursor = new GridCursor(worldSeed, grid);
+        int columns = maxGridZ - minGridZ + 1;
+        int index = offset;
+
+        for (int gridX = minGridX; ; gridX++) {
+            cursor.moveTo(gridX, minGridZ);
+            cursor.fillRow(columns, out, index);
+            index += columns;
+            if (gridX == maxGridX) {
+                break;
+            }
+        }
 
-        for (ChunkCoord chunk : chunks) {
-            // Base spawn point without random offset
-            int blockX = chunk.x * 16 + 4;
-            int blockZ = chunk.z * 16 + 4;
+        return (int) cells;
+    }
 
-            // Type prediction (approximate)
-            String towerType = "UNKNOWN";
+    /**
+     * Parallel variant of predictDungeonChunks() on the common ForkJoinPool.
+     * Returns exactly the same list, in the same row-major order.
+     */
+    public static List<ChunkCoord> predictDungeonChunksParallel(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius) {
 
-            spawns.add(new DungeonSpawn(chunk, blockX, blockZ, towerType));
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return predictDungeonChunksParallel(worldSeed, grid, searchRadius, pool, pool.getParallelism());
+    }
+
+    /**
+     * Parallel variant of predictDungeonChunks(). Returns exactly the same list, in the same
+     * row-major order, whatever the pool and parallelism.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search in each direction from spawn
+     * @param pool The pool to run on
+     * @param parallelism Maximum number of row tiles evaluated at once, capped at the pool's parallelism
+     * @return List of chunk coordinates where dungeons will spawn
+     */
+    public static List<ChunkCoord> predictDungeonChunksParallel(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius,
+            ForkJoinPool pool,
+            int parallelism) {
+
+        long cells = gridCellCount(searchRadius);
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(cells + " grid cells don't fit in a List, use predictDungeonChunksPacked");
         }
 
-        return spawns;
+        long[] packed = new long[(int) cells];
+        predictDungeonChunksParallelPacked(worldSeed, grid,
+            -searchRadius, -searchRadius, searchRadius, searchRadius, packed, 0, pool, parallelism);
+        return toChunkCoords(packed, packed.length);
     }
 
     /**
-     * Predicts full dungeon spawn locations with block coordinates.
-     * Combines chunk prediction with offset calculation.
+     * Parallel variant of predictDungeonChunksPacked() for a rectangle of grid cells. Writes
+     * exactly the same values, at the same indices, as the sequential method.
      *
      * @param worldSeed The Minecraft world seed
-     * @param spawnFrequency The spawn frequency config value (default: 10)
-     * @param searchRadius How many grid cells to search
-     * @return List of predicted dungeon spawn locations
+     * @param grid The grid parameters for the spawn frequency
+     * @param minGridX Lowest grid X index (inclusive)
+     * @param minGridZ Lowest grid Z index (inclusive)
+     * @param maxGridX Highest grid X index (inclusive)
+     * @param maxGridZ Highest grid Z index (inclusive)
+     * @param out Receives the packed chunk coordinates (see packChunk)
+     * @param offset Index in out of the first result
+     * @param pool The pool to run on
+     * @param parallelism Maximum number of row tiles evaluated at once, capped at the pool's parallelism
+     * @return Number of values written
+     * @throws IllegalArgumentException if out can't hold every result
      */
-    public static List<DungeonSpawn> predictDungeonSpawns(
+    public static int predictDungeonChunksParallelPacked(
             long worldSeed,
-            int spawnFrequency,
-            int searchRadius) {
+            GridParams grid,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ,
+            long[] out,
+            int offset,
+            ForkJoinPool pool,
+            int parallelism) {
+
+        long cells = gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        if (cells > out.length - (long) offset) {
+            throw new IllegalArgumentException("Output has room for " + (out.length - offset) + " values, " + cells + " needed");
+        }
+        if (cells == 0) {
+            return 0;
+        }
 
-        List<DungeonSpawn> spawns = new ArrayList<DungeonSpawn>();
-        List<ChunkCoord> chunks = predictDungeonChunks(worldSeed, spawnFrequency, searchRadius);
+        ParallelGridScan.fill(worldSeed, grid, minGridX, minGridZ, maxGridX, maxGridZ,
+            out, offset, pool, parallelism);
+        return (int) cells;
+    }
 
-        for (ChunkCoord chunk : chunks) {
-            BlockOffset offset = predictDungeonOffset(worldSeed, chunk.x, chunk.z);
+    /**
+     * Packed variant of predictDungeonChunks() writing to a LongBuffer, starting at its
+     * current position. The position is advanced past the last value written.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer can't hold every result
+     */
+    public static int predictDungeonChunksPacked(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius,
+            LongBuffer out) {
+
+        long cells = gridCellCount(searchRadius);
+        if (cells > out.remaining()) {
+            throw new BufferOverflowException();
+        }
+        if (cells == 0) {
+            return 0;
+        }
 
-            // Calculate final block coordinates
-            int blockX = chunk.x * 16 + 4 + offset.x;
-            int blockZ = chunk.z * 16 + 4 + offset.z;
+        if (out.hasArray()) {
+            int written = predictDungeonChunksPacked(worldSeed, grid, searchRadius,
+                out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + written);
+            return written;
+        }
 
-            // Predict tower type
-            String towerType = predictTowerType(worldSeed, blockX, blockZ);
+        // Direct or read-only-backed buffers: go through a reusable row buffer
+        GridCursor cursor = new GridCursor(worldSeed, grid);
+        int columns = 2 * searchRadius + 1;
+        long[] row = new long[Math.min(columns, ROW_BLOCK)];
 
-            spawns.add(new DungeonSpawn(chunk, blockX, blockZ, towerType));
+        for (int gridX = -searchRadius; gridX <= searchRadius; gridX++) {
+            cursor.moveTo(gridX, -searchRadius);
+            for (int column = 0; column < columns; column += row.length) {
+                int count = Math.min(row.length, columns - column);
+                cursor.fillRow(count, row, 0);
+                out.put(row, 0, count);
+            }
         }
 
-        return spawns;
+        return (int) cells;
     }
 
     /**
-     * Predicts the approximate tower/dungeon type based on coordinate hash.
-     * This is a simplified prediction - actual type depends on biome and config.
-     *
-     * Tower types: ROGUE, ENIKO, ETHO, PYRAMID, JUNGLE, WITCH, HOUSE, BUNKER
-     * Biome themes: DESERT(Pyramid), JUNGLE(Jungle), SWAMP(Witch), etc.
+     * Packed variant of predictDungeonChunksInRing(), in the same clockwise order.
      *
-     * Note: Without biome data, this uses coordinate-based hashing for variety.
-     * In the real game, biome determines theme which determines tower type.
-     *
-     * @param worldSeed The world seed
-     * @param blockX Block X coordinate
-     * @param blockZ Block Z coordinate
-     * @return Predicted tower type name
+     * @return Number of values written: 1 for ring 0, 8 * ring otherwise
+     * @throws IllegalArgumentException if out can't hold every result
      */
-    public static String predictTowerType(long worldSeed, int blockX, int blockZ) {
-        // Use coordinate hash to simulate biome-based selection
-        // This matches how the game uses seeded random for settings selection
-        long seed = worldSeed * blockX * blockZ;
-        Random rand = new Random(seed);
-
-        // Tower types available in the game
-        String[] towerTypes = {
-            "ROGUE",      // Default/grassland
-            "PYRAMID",    // Desert biome
-            "JUNGLE",     // Jungle biome
-            "WITCH",      // Swamp biome
-            "HOUSE",      // Plains/village
-            "BUNKER",     // Mountain/extreme hills
-            "ETHO",       // Forest
-            "ENIKO"       // Special/rare
-        };
-
-        // Weight based on general biome distribution (simplified)
-        // ROGUE is most common (default), others are biome-specific
-        int[] weights = {30, 10, 10, 10, 15, 10, 10, 5};
-        int totalWeight = 0;
-        for (int w : weights) totalWeight += w;
-
-        int selection = rand.nextInt(totalWeight);
-        int cumulative = 0;
-
-        for (int i = 0; i < towerTypes.length; i++) {
-            cumulative += weights[i];
-            if (selection < cumulative) {
-                return towerTypes[i];
+    public static int predictDungeonChunksInRingPacked(
+            long worldSeed,
+            GridParams grid,
+            int centerGridX,
+            int centerGridZ,
+            int ring,
+            long[] out,
+            int offset) {
+
+        if (ring < 0) {
+            throw new IllegalArgumentException("ring must not be negative");
+        }
+
+        int cells = ring == 0 ? 1 : 8 * ring;
+        if (cells > out.length - offset) {
+            throw new IllegalArgumentException("Output has room for " + (out.length - offset) + " values, " + cells + " needed");
+        }
+
+        GridCursor cursor = new GridCursor(worldSeed, grid);
+        cursor.moveTo(centerGridX - ring, centerGridZ - ring);
+
+        if (ring == 0) {
+            out[offset] = cursor.spawnChunk();
+            return 1;
+        }
+
+        int side = 2 * ring;
+        int index = offset;
+        for (int edge = 0; edge < 4; edge++) {
+            for (int i = 0; i < side; i++) {
+                out[index++] = cursor.spawnChunk();
+
+                switch (edge) {
+                    case 0: cursor.nextX(); break;
+                    case 1: cursor.nextZ(); break;
+                    case 2: cursor.previousX(); break;
+                    default: cursor.previousZ(); break;
+                }
             }
         }
 
-        return "ROGUE"; // Default fallback
+        return cells;
     }
 
     /**
-     * Converts block coordinates to chunk coordinates
+     * Predicts the dungeon spawn chunks within a search radius for several spawn frequencies
+     * in a single pass, e.g. to compare configs. Each grid index is evaluated once, sharing the
+     * seed derivation and the raw draws between the frequencies, so comparing N frequencies
+     * costs close to one scan.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequencies The spawn frequency config values to compare
+     * @param searchRadius How many grid cells to search in each direction from spawn
+     * @return One column per frequency: result[f] holds the packed chunks (see packChunk) for
+     *         spawnFrequencies[f], in the order of predictDungeonChunksPacked()
      */
-    public static ChunkCoord blockToChunk(int blockX, int blockZ) {
-        return new ChunkCoord(blockX >> 4, blockZ >> 4);
+    public static long[][] predictDungeonChunksMultiFrequency(
+            long worldSeed,
+            int[] spawnFrequencies,
+            int searchRadius) {
+
+        GridParams[] grids = new GridParams[spawnFrequencies.length];
+        for (int f = 0; f < grids.length; f++) {
+            grids[f] = GridParams.of(spawnFrequencies[f]);
+        }
+
+        long cells = gridCellCount(searchRadius);
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(cells + " grid cells don't fit in an array");
+        }
+
+        long[][] columns = new long[grids.length][(int) cells];
+        predictDungeonChunksMultiFrequency(worldSeed, grids,
+            -searchRadius, -searchRadius, searchRadius, searchRadius, columns, 0);
+        return columns;
     }
 
     /**
-     * Finds the nearest predicted dungeon spawn to given coordinates
+     * Multi-frequency variant of predictDungeonChunksPacked() for a rectangle of grid cells.
+     * out[f] receives exactly the values predictDungeonChunksPacked() writes for grids[f].
+     *
+     * Note that a grid index covers different chunks when the cell sizes differ.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grids The grid parameters of each spawn frequency
+     * @param minGridX Lowest grid X index (inclusive)
+     * @param minGridZ Lowest grid Z index (inclusive)
+     * @param maxGridX Highest grid X index (inclusive)
+     * @param maxGridZ Highest grid Z index (inclusive)
+     * @param out One output column per frequency
+     * @param offset Index in each column of the first result
+     * @return Number of values written to each column
+     * @throws IllegalArgumentException if a column can't hold every result
      */
-    public static DungeonSpawn findNearestDungeon(
+    public static int predictDungeonChunksMultiFrequency(
             long worldSeed,
-            int spawnFrequency,
-            int playerX,
-            int playerZ,
-            int searchRadius) {
+            GridParams[] grids,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ,
+            long[][] out,
+            int offset) {
+
+        if (out.length < grids.length) {
+            throw new IllegalArgumentException("Output has " + out.length + " columns, " + grids.length + " needed");
+        }
+        long cells = gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        for (int f = 0; f < grids.length; f++) {
+            if (cells > out[f].length - (long) offset) {
+                throw new IllegalArgumentException("Output column " + f + " has room for " + (out[f].length - offset) + " values, " + cells + " needed");
+            }
+        }
+        if (cells == 0 || grids.length == 0) {
+            return (int) cells;
+        }
 
-        List<DungeonSpawn> spawns = predictDungeonSpawns(worldSeed, spawnFrequency, searchRadius);
+        GridCursor cursor = new GridCursor(worldSeed, grids[0]);
+        int columns = maxGridZ - minGridZ + 1;
+        int index = offset;
 
-        DungeonSpawn nearest = null;
-        double minDistance = Double.MAX_VALUE;
+        for (int gridX = minGridX; ; gridX++) {
+            cursor.moveTo(gridX, minGridZ);
+            cursor.fillRow(grids, columns, out, index);
+            index += columns;
+            if (gridX == maxGridX) {
+                break;
+            }
+        }
 
-        for (DungeonSpawn spawn : spawns) {
-            double dx = spawn.blockX - playerX;
-            double dz = spawn.blockZ - playerZ;
-            double distance = Math.sqrt(dx * dx + dz * dz);
+        return (int) cells;
+    }
 
-            if (distance < minDistance) {
-                minDistance = distance;
-                nearest = spawn;
-            }
+    /**
+     * Unpacks the first count packed chunks into ChunkCoord objects
+     */
+    public static List<ChunkCoord> toChunkCoords(long[] packedChunks, int count) {
+        List<ChunkCoord> chunks = new ArrayList<ChunkCoord>(count);
+        for (int i = 0; i < count; i++) {
+            chunks.add(new ChunkCoord(unpackChunkX(packedChunks[i]), unpackChunkZ(packedChunks[i])));
         }
+        return chunks;
+    }
+
+    /**
+     * Check if a specific chunk will have a dungeon spawn.
+     * This is the exact reverse-engineered algorithm from Dungeon.canSpawnInChunk()
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @return true if a dungeon will spawn in this chunk
+     */
+    public static boolean willDungeonSpawnInChunk(
+            long worldSeed,
+            int chunkX,
+            int chunkZ,
+            int spawnFrequency) {
+
+        return willDungeonSpawnInChunk(worldSeed, chunkX, chunkZ, GridParams.of(spawnFrequency));
+    }
 
-        return nearest;
+    /**
+     * Check if a specific chunk will have a dungeon spawn.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param grid The grid parameters for the spawn frequency
+     * @return true if a dungeon will spawn in this chunk
+     */
+    public static boolean willDungeonSpawnInChunk(
+            long worldSeed,
+            int chunkX,
+            int chunkZ,
+            GridParams grid) {
+
+        // Get grid cell (with the negative coordinate normalization of canSpawnInChunk)
+        int m = grid.gridIndex(chunkX);
+        int n = grid.gridIndex(chunkZ);
+
+        // Check if this chunk matches the spawn chunk of its cell
+        return evaluateGridCell(worldSeed, grid, m, n) == packChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * Variant of willDungeonSpawnInChunk() reading the grid cell through a cache
+     */
+    public static boolean willDungeonSpawnInChunk(
+            GridCellCache cache,
+            long worldSeed,
+            int chunkX,
+            int chunkZ,
+            GridParams grid) {
+
+        return cache.source(worldSeed, grid).spawnChunk(grid.gridIndex(chunkX), grid.gridIndex(chunkZ))
+            == packChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * Batch variant of willDungeonSpawnInChunk() for many chunks at once.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param packedChunks Chunks to check, packed with packChunk()
+     * @param out Bit i is set if chunk i will have a dungeon spawn and cleared otherwise
+     */
+    public static void willDungeonSpawnInChunks(
+            long worldSeed,
+            int spawnFrequency,
+            long[] packedChunks,
+            BitSet out) {
+
+        // Spawn chunks are rare, so clear the range once and set only the hits
+        out.clear(0, packedChunks.length);
+        checkChunks(worldSeed, GridParams.of(spawnFrequency), packedChunks, 0, packedChunks.length, null, out);
+    }
+
+    /**
+     * Batch variant of willDungeonSpawnInChunk() for many chunks at once.
+     *
+     * All chunks of a grid cell share one spawn chunk, so each cell is evaluated once and every
+     * chunk in it is answered with a compare. Runs of chunks in the same cell (the usual case for
+     * chunk generation order) skip even the grid index division, and a small direct-mapped table
+     * of recent cells catches cells that are revisited out of order.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param packedChunks Chunks to check, packed with packChunk()
+     * @param offset Index of the first chunk to check
+     * @param count Number of chunks to check
+     * @param out out[i] receives the answer for packedChunks[offset + i]
+     */
+    public static void willDungeonSpawnInChunks(
+            long worldSeed,
+            GridParams grid,
+            long[] packedChunks,
+            int offset,
+            int count,
+            boolean[] out) {
+
+        checkChunks(worldSeed, grid, packedChunks, offset, count, out, null);
+    }
+
+    /**
+     * Grouping loop of willDungeonSpawnInChunks(). Writes every answer to out, or if out is
+     * null sets bit i of bits for every chunk that will have a dungeon spawn.
+     */
+    private static void checkChunks(
+            long worldSeed,
+            GridParams grid,
+            long[] packedChunks,
+            int offset,
+            int count,
+            boolean[] out,
+            BitSet bits) {
+
+        int cellSize = grid.cellSize;
+
+        // Recent cells, keyed by packed (gridX, gridZ). Integer.MIN_VALUE is never a grid
+        // index (cells are at least 8 chunks wide), so it marks an empty slot.
+        long[] recentCells = new long[RECENT_CELLS];
+        long[] recentSpawns = new long[RECENT_CELLS];
+        Arrays.fill(recentCells, (long) Integer.MIN_VALUE << 32);
+
+        // Chunk origin and spawn of the cell of the previous chunk
+        int originX = 0;
+        int originZ = 0;
+        long spawn = 0;
+        boolean haveCell = false;
+
+        for (int i = 0; i < count; i++) {
+            long chunk = packedChunks[offset + i];
+            int chunkX = unpackChunkX(chunk);
+            int chunkZ = unpackChunkZ(chunk);
+
+            // Unsigned compares test originX <= chunkX < originX + cellSize in one go
+            if (!haveCell
+                    || Integer.compareUnsigned(chunkX - originX, cellSize) >= 0
+                    || Integer.compareUnsigned(chunkZ - originZ, cellSize) >= 0) {
+
+                int gridX = grid.gridIndex(chunkX);
+                int gridZ = grid.gridIndex(chunkZ);
+                long cell = ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+                int slot = (int) ((cell * 0x9E3779B97F4A7C15L) >>> (64 - RECENT_CELL_BITS));
+
+                if (recentCells[slot] == cell) {
+                    spawn = recentSpawns[slot];
+                } else {
+                    spawn = evaluateGridCell(worldSeed, grid, gridX, gridZ);
+                    recentCells[slot] = cell;
+                    recentSpawns[slot] = spawn;
+                }
+
+                originX = gridX * cellSize;
+                originZ = gridZ * cellSize;
+                haveCell = true;
+            }
+
+            if (out != null) {
+                out[i] = chunk == spawn;
+            } else if (chunk == spawn) {
+                bits.set(i);
+            }
+        }
+    }
+
+    /**
+     * Predicts the dungeon spawn chunk of a single grid cell.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param gridX Grid X index
+     * @param gridZ Grid Z index
+     * @return The packed spawn chunk (see packChunk)
+     */
+    public static long evaluateGridCell(long worldSeed, GridParams grid, int gridX, int gridZ) {
+        // Create seeded random for this grid cell
+        // Uses Minecraft's world.setRandomSeed(a, b, c) algorithm
+        long seed = GridRandom.gridSeed(worldSeed, gridX, gridZ);
+        long offsets = GridRandom.cellOffsets(seed, grid);
+
+        // Base position (grid cell * max) plus the random offset within the cell
+        int m = gridX * grid.cellSize + (int) (offsets >> 32);
+        int n = gridZ * grid.cellSize + (int) offsets;
+
+        return packChunk(m, n);
+    }
+
+    /**
+     * Predicts the approximate block offset from the chunk spawn point.
+     * This uses the algorithm from Dungeon.generateNear() and getNearbyCoord()
+     *
+     * Note: The actual dungeon may not spawn here if the location fails validation,
+     * but this gives the first attempted location.
+     *
+     * @param worldSeed The world seed
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return BlockOffset indicating where the dungeon entrance will likely be
+     */
+    public static BlockOffset predictDungeonOffset(long worldSeed, int chunkX, int chunkZ) {
+        long offset = predictDungeonOffsetPacked(worldSeed, chunkX, chunkZ);
+        return new BlockOffset((int) (offset >> 32), (int) offset);
+    }
+
+    /**
+     * Allocation-free variant of predictDungeonOffset()
+     *
+     * @return The offset packed as (x << 32) | (z & 0xFFFFFFFFL)
+     */
+    static long predictDungeonOffsetPacked(long worldSeed, int chunkX, int chunkZ) {
+        // Convert chunk to block coordinates (center of chunk + 4 from spawnInChunk)
+        int x = chunkX * 16 + 4;
+        int z = chunkZ * 16 + 4;
+
+        // Use the same seed calculation as Dungeon.getRandom(), with the Random inlined:
+        // nextInt(NEARBY_MAX - NEARBY_MIN) for the distance, then nextDouble() for the angle
+        long s = GridRandom.advance(GridRandom.scramble(worldSeed * x * z));
+        int r = (int) (s >>> 17);
+        while (r >= NEARBY_REJECTION_THRESHOLD) {
+            s = GridRandom.advance(s);
+            r = (int) (s >>> 17);
+        }
+        int distance = NEARBY_MIN + r % (NEARBY_MAX - NEARBY_MIN);
+
+        s = GridRandom.advance(s);
+        long high = s >>> 22;            // next(26)
+        s = GridRandom.advance(s);
+        long low = s >>> 21;             // next(27)
+        double angle = ((high << 27) + low) * 0x1.0p-53 * 2 * Math.PI;
+
+        // (int) (cos(angle) * distance), (int) (sin(angle) * distance) with StrictMath semantics,
+        // so the truncated offsets don't depend on which Math intrinsics the JVM picks
+        return DungeonOffsetTable.offsets(angle, distance);
+    }
+
+    /**
+     * Batch variant of predictDungeonOffset() writing to primitive arrays, for many spawn
+     * chunks at once without creating any objects.
+     *
+     * @param worldSeed The world seed
+     * @param packedChunks Spawn chunks, packed with packChunk()
+     * @param offset Index of the first chunk
+     * @param count Number of chunks
+     * @param outX outX[i] receives the X block offset of packedChunks[offset + i]
+     * @param outZ outZ[i] receives the Z block offset of packedChunks[offset + i]
+     */
+    public static void predictDungeonOffsets(
+            long worldSeed,
+            long[] packedChunks,
+            int offset,
+            int count,
+            int[] outX,
+            int[] outZ) {
+
+        for (int i = 0; i < count; i++) {
+            long chunk = packedChunks[offset + i];
+            long packed = predictDungeonOffsetPacked(worldSeed, unpackChunkX(chunk), unpackChunkZ(chunk));
+            outX[i] = (int) (packed >> 32);
+            outZ[i] = (int) packed;
+        }
+    }
+
+    /**
+     * Dungeon entrance of a grid cell: spawn chunk base point plus the predicted offset
+     *
+     * @return The block position packed as (blockX << 32) | (blockZ & 0xFFFFFFFFL)
+     */
+    static long spawnBlock(long worldSeed, GridParams grid, int gridX, int gridZ) {
+        return spawnBlockOfChunk(worldSeed, evaluateGridCell(worldSeed, grid, gridX, gridZ));
+    }
+
+    /**
+     * Dungeon entrance of a packed spawn chunk: base point plus the predicted offset
+     *
+     * @return The block position packed as (blockX << 32) | (blockZ & 0xFFFFFFFFL)
+     */
+    static long spawnBlockOfChunk(long worldSeed, long chunk) {
+        int chunkX = unpackChunkX(chunk);
+        int chunkZ = unpackChunkZ(chunk);
+        long offset = predictDungeonOffsetPacked(worldSeed, chunkX, chunkZ);
+
+        int blockX = chunkX * 16 + 4 + (int) (offset >> 32);
+        int blockZ = chunkZ * 16 + 4 + (int) offset;
+        return ((long) blockX << 32) | (blockZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Predicts dungeon spawn base points (chunk spawn locations).
+     * These are the initial positions (chunk * 16 + 4) before the random 40-100 block offset.
+     * The actual dungeon will be 40-100 blocks away from these points in a random direction.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param searchRadius How many grid cells to search
+     * @return List of predicted dungeon spawn base points
+     */
+    public static List<DungeonSpawn> predictDungeonBasePoints(
+            long worldSeed,
+            int spawnFrequency,
+            int searchRadius) {
+
+        return predictDungeonBasePoints(worldSeed, GridParams.of(spawnFrequency), searchRadius);
+    }
+
+    /**
+     * Predicts dungeon spawn base points (chunk spawn locations).
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search
+     * @return List of predicted dungeon spawn base points
+     */
+    public static List<DungeonSpawn> predictDungeonBasePoints(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius) {
+
+        List<DungeonSpawn> spawns = new ArrayList<DungeonSpawn>();
+        List<ChunkCoord> chunks = predictDungeonChunks(worldSeed, grid, searchRadius);
+
+        for (ChunkCoord chunk : chunks) {
+            // Base spawn point without random offset
+            int blockX = chunk.x * 16 + 4;
+            int blockZ = chunk.z * 16 + 4;
+
+            // Type prediction (approximate)
+            String towerType = "UNKNOWN";
+
+            spawns.add(new DungeonSpawn(chunk, blockX, blockZ, towerType));
+        }
+
+        return spawns;
+    }
+
+    /**
+     * Predicts full dungeon spawn locations with block coordinates.
+     * Combines chunk prediction with offset calculation.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param searchRadius How many grid cells to search
+     * @return List of predicted dungeon spawn locations
+     */
+    public static List<DungeonSpawn> predictDungeonSpawns(
+            long worldSeed,
+            int spawnFrequency,
+            int searchRadius) {
+
+        return predictDungeonSpawns(worldSeed, GridParams.of(spawnFrequency), searchRadius);
+    }
+
+    /**
+     * Predicts full dungeon spawn locations with block coordinates.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search
+     * @return List of predicted dungeon spawn locations
+     */
+    public static List<DungeonSpawn> predictDungeonSpawns(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius) {
+
+        long cells = gridCellCount(searchRadius);
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(cells + " grid cells don't fit in a List, use predictDungeonChunksPacked");
+        }
+
+        int count = (int) cells;
+        long[] chunks = new long[count];
+        int[] offsetX = new int[count];
+        int[] offsetZ = new int[count];
+        predictDungeonChunksPacked(worldSeed, grid, searchRadius, chunks, 0);
+        predictDungeonOffsets(worldSeed, chunks, 0, count, offsetX, offsetZ);
+
+        List<DungeonSpawn> spawns = new ArrayList<DungeonSpawn>(count);
+        for (int i = 0; i < count; i++) {
+            int chunkX = unpackChunkX(chunks[i]);
+            int chunkZ = unpackChunkZ(chunks[i]);
+            int blockX = chunkX * 16 + 4 + offsetX[i];
+            int blockZ = chunkZ * 16 + 4 + offsetZ[i];
+            spawns.add(new DungeonSpawn(new ChunkCoord(chunkX, chunkZ), blockX, blockZ,
+                TowerType.predict(worldSeed, blockX, blockZ)));
+        }
+
+        return spawns;
+    }
+
+    /**
+     * Batch variant of predictDungeonSpawns(), in the same row-major order
+     *
+     * @param out Cleared, then receives one spawn per grid cell
+     * @return Number of spawns written
+     */
+    public static int predictDungeonSpawns(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius,
+            DungeonSpawnBatch out) {
+
+        return fillSpawns(worldSeed, grid, searchRadius, true, out);
+    }
+
+    /**
+     * Batch variant of predictDungeonBasePoints(), in the same row-major order. The spawns have
+     * the base point as block position and DungeonSpawnBatch.UNKNOWN_TOWER as tower type.
+     *
+     * @param out Cleared, then receives one base point per grid cell
+     * @return Number of base points written
+     */
+    public static int predictDungeonBasePoints(
+            long worldSeed,
+            GridParams grid,
+            int searchRadius,
+            DungeonSpawnBatch out) {
+
+        return fillSpawns(worldSeed, grid, searchRadius, false, out);
+    }
+
+    private static int fillSpawns(long worldSeed, GridParams grid, int searchRadius, boolean resolve,
+                                  DungeonSpawnBatch out) {
+        long cells = gridCellCount(searchRadius);
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(cells + " grid cells don't fit in a batch, use predictDungeonChunksPacked");
+        }
+
+        out.clear();
+        out.ensureCapacity((int) cells);
+        GridCursor cursor = new GridCursor(worldSeed, grid);
+
+        for (int gridX = -searchRadius; gridX <= searchRadius; gridX++) {
+            cursor.moveTo(gridX, -searchRadius);
+            for (int gridZ = -searchRadius; gridZ <= searchRadius; gridZ++) {
+                long chunk = cursor.spawnChunk();
+                cursor.nextZ();
+
+                int chunkX = unpackChunkX(chunk);
+                int chunkZ = unpackChunkZ(chunk);
+                if (resolve) {
+                    long block = spawnBlockOfChunk(worldSeed, chunk);
+                    int blockX = (int) (block >> 32);
+                    int blockZ = (int) block;
+                    out.add(chunkX, chunkZ, blockX, blockZ, TowerType.predictOrdinal(worldSeed, blockX, blockZ));
+                } else {
+                    out.add(chunkX, chunkZ, chunkX * 16 + 4, chunkZ * 16 + 4, DungeonSpawnBatch.UNKNOWN_TOWER);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Resolves the full dungeon spawn (offset and tower type) of a spawn chunk
+     */
+    static DungeonSpawn resolveSpawn(long worldSeed, ChunkCoord chunk) {
+        long offset = predictDungeonOffsetPacked(worldSeed, chunk.x, chunk.z);
+
+        // Calculate final block coordinates
+        int blockX = chunk.x * 16 + 4 + (int) (offset >> 32);
+        int blockZ = chunk.z * 16 + 4 + (int) offset;
+
+        // Predict tower type
+        return new DungeonSpawn(chunk, blockX, blockZ, TowerType.predict(worldSeed, blockX, blockZ));
+    }
+
+    /**
+     * Lazy variant of predictDungeonChunks(). Spawn chunks are evaluated as the stream is
+     * consumed, in the same row-major order, and never collected into a list. The stream is
+     * SIZED and splits evenly, so .parallel() spreads the grid over all cores.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param searchRadius How many grid cells to search in each direction from spawn
+     * @return Stream of packed chunk coordinates (see packChunk)
+     */
+    public static LongStream streamDungeonChunks(long worldSeed, GridParams grid, int searchRadius) {
+        return streamDungeonChunksInGrid(worldSeed, grid, -searchRadius, -searchRadius, searchRadius, searchRadius);
+    }
+
+    /**
+     * Lazy variant of predictDungeonChunksInGrid()
+     *
+     * @return Stream of packed chunk coordinates (see packChunk)
+     */
+    public static LongStream streamDungeonChunksInGrid(
+            long worldSeed,
+            GridParams grid,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ) {
+
+        return StreamSupport.longStream(
+            GridSpliterator.of(worldSeed, grid, minGridX, minGridZ, maxGridX, maxGridZ), false);
+    }
+
+    /**
+     * Lazy variant of predictDungeonSpawns(). Offsets and tower types are only computed
+     * for the spawns the stream actually reaches.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param searchRadius How many grid cells to search
+     * @return Stream of predicted dungeon spawn locations
+     */
+    public static Stream<DungeonSpawn> streamDungeonSpawns(long worldSeed, int spawnFrequency, int searchRadius) {
+        return streamDungeonSpawns(worldSeed, GridParams.of(spawnFrequency), searchRadius);
+    }
+
+    /**
+     * Lazy variant of predictDungeonSpawns()
+     */
+    public static Stream<DungeonSpawn> streamDungeonSpawns(long worldSeed, GridParams grid, int searchRadius) {
+        return streamDungeonChunks(worldSeed, grid, searchRadius)
+            .mapToObj(chunk -> resolveSpawn(worldSeed, new ChunkCoord(unpackChunkX(chunk), unpackChunkZ(chunk))));
+    }
+
+    /**
+     * Predicts the approximate tower/dungeon type based on coordinate hash.
+     * This is a simplified prediction - actual type depends on biome and config.
+     *
+     * Tower types: ROGUE, ENIKO, ETHO, PYRAMID, JUNGLE, WITCH, HOUSE, BUNKER
+     * Biome themes: DESERT(Pyramid), JUNGLE(Jungle), SWAMP(Witch), etc.
+     *
+     * Note: Without biome data, this uses coordinate-based hashing for variety.
+     * In the real game, biome determines theme which determines tower type.
+     *
+     * @param worldSeed The world seed
+     * @param blockX Block X coordinate
+     * @param blockZ Block Z coordinate
+     * @return Predicted tower type name
+     */
+    public static String predictTowerType(long worldSeed, int blockX, int blockZ) {
+        // Use coordinate hash to simulate biome-based selection
+        // This matches how the game uses seeded random for settings selection
+        return TowerType.predict(worldSeed, blockX, blockZ).name();
+    }
+
+    /**
+     * Converts block coordinates to chunk coordinates
+     */
+    public static ChunkCoord blockToChunk(int blockX, int blockZ) {
+        return new ChunkCoord(blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Finds the nearest predicted dungeon spawn to given coordinates
+     *
+     * @param searchRadius How many rings of grid cells around the player's cell to search at most
+     */
+    public static DungeonSpawn findNearestDungeon(
+            long worldSeed,
+            int spawnFrequency,
+            int playerX,
+            int playerZ,
+            int searchRadius) {
+
+        return findNearestDungeon(worldSeed, GridParams.of(spawnFrequency), playerX, playerZ, searchRadius);
+    }
+
+    /**
+     * Finds the nearest predicted dungeon spawn to given coordinates, with no search limit.
+     * Usually only the player's cell and its first two rings are evaluated.
+     */
+    public static DungeonSpawn findNearestDungeon(
+            long worldSeed,
+            GridParams grid,
+            int playerX,
+            int playerZ) {
+
+        return findNearestDungeon(worldSeed, grid, playerX, playerZ, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Finds the nearest predicted dungeon spawn to given coordinates.
+     *
+     * Searches outward in rings of grid cells centered on the player's cell, and stops as soon
+     * as the cell geometry (plus the maximum 100 block offset) proves that no further ring can
+     * hold a closer dungeon. Cells that can't beat the current best are not evaluated at all.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param playerX Block X coordinate of the player
+     * @param playerZ Block Z coordinate of the player
+     * @param searchRadius How many rings of grid cells around the player's cell to search at most
+     * @return The nearest dungeon, or null if searchRadius is negative
+     */
+    public static DungeonSpawn findNearestDungeon(
+            long worldSeed,
+            GridParams grid,
+            int playerX,
+            int playerZ,
+            int searchRadius) {
+
+        if (searchRadius < 0) {
+            return null;
+        }
+
+        return nearestDungeon(SpawnSearch.direct(worldSeed, grid), grid, playerX, playerZ, searchRadius);
+    }
+
+    /**
+     * Variant of findNearestDungeon() reading the grid cells through a cache
+     */
+    public static DungeonSpawn findNearestDungeon(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int playerX,
+            int playerZ) {
+
+        return nearestDungeon(cache.source(worldSeed, grid), grid, playerX, playerZ, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Batch variant of findNearestDungeon()
+     *
+     * @param out Cleared, then receives the nearest dungeon
+     * @return Number of dungeons written (1, or 0 if searchRadius is negative)
+     */
+    public static int findNearestDungeon(
+            long worldSeed,
+            GridParams grid,
+            int playerX,
+            int playerZ,
+            int searchRadius,
+            DungeonSpawnBatch out) {
+
+        out.clear();
+        if (searchRadius < 0) {
+            return 0;
+        }
+        return nearestDungeon(SpawnSearch.direct(worldSeed, grid), grid, playerX, playerZ, searchRadius, out);
+    }
+
+    /**
+     * Batch variant of findNearestDungeon() reading the grid cells through a cache
+     */
+    public static int findNearestDungeon(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int playerX,
+            int playerZ,
+            DungeonSpawnBatch out) {
+
+        out.clear();
+        return nearestDungeon(cache.source(worldSeed, grid), grid, playerX, playerZ, Integer.MAX_VALUE - 1, out);
+    }
+
+    private static DungeonSpawn nearestDungeon(SpawnSearch.SpawnSource source, GridParams grid,
+                                               int x, int z, int maxRing) {
+        long cell = SpawnSearch.nearestCell(source, grid, x, z, maxRing);
+        return resolveCell(source, (int) (cell >> 32), (int) cell);
+    }
+
+    private static int nearestDungeon(SpawnSearch.SpawnSource source, GridParams grid,
+                                      int x, int z, int maxRing, DungeonSpawnBatch out) {
+        long cell = SpawnSearch.nearestCell(source, grid, x, z, maxRing);
+        addCell(source, (int) (cell >> 32), (int) cell, out);
+        return 1;
+    }
+
+    /**
+     * Full dungeon spawn of a grid cell from a spawn source
+     */
+    static DungeonSpawn resolveCell(SpawnSearch.SpawnSource source, int gridX, int gridZ) {
+        long chunk = source.spawnChunk(gridX, gridZ);
+        long block = source.spawnBlock(gridX, gridZ);
+        return new DungeonSpawn(new ChunkCoord(unpackChunkX(chunk), unpackChunkZ(chunk)),
+            (int) (block >> 32), (int) block, TowerType.byOrdinal(source.towerType(gridX, gridZ)));
+    }
+
+    /**
+     * Appends the full dungeon spawn of a grid cell from a spawn source to a batch
+     */
+    private static void addCell(SpawnSearch.SpawnSource source, int gridX, int gridZ, DungeonSpawnBatch out) {
+        long chunk = source.spawnChunk(gridX, gridZ);
+        long block = source.spawnBlock(gridX, gridZ);
+        out.add(unpackChunkX(chunk), unpackChunkZ(chunk), (int) (block >> 32), (int) block,
+            source.towerType(gridX, gridZ));
+    }
+
+    /**
+     * Finds the k nearest predicted dungeon spawns to given coordinates, nearest first
+     */
+    public static List<DungeonSpawn> findKNearest(
+            long worldSeed,
+            int spawnFrequency,
+            int x,
+            int z,
+            int k) {
+
+        return findKNearest(worldSeed, GridParams.of(spawnFrequency), x, z, k);
+    }
+
+    /**
+     * Finds the k nearest predicted dungeon spawns to given coordinates, nearest first.
+     * Uses the same ring search as findNearestDungeon() with a bounded heap of k candidates.
+     */
+    public static List<DungeonSpawn> findKNearest(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int k) {
+
+        return kNearest(SpawnSearch.direct(worldSeed, grid), grid, x, z, k);
+    }
+
+    /**
+     * Variant of findKNearest() reading the grid cells through a cache
+     */
+    public static List<DungeonSpawn> findKNearest(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int k) {
+
+        return kNearest(cache.source(worldSeed, grid), grid, x, z, k);
+    }
+
+    /**
+     * Batch variant of findKNearest(), nearest first
+     *
+     * @param out Cleared, then receives the k nearest dungeons
+     * @return Number of dungeons written (k, or 0 if k is not positive)
+     */
+    public static int findKNearest(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int k,
+            DungeonSpawnBatch out) {
+
+        return kNearest(SpawnSearch.direct(worldSeed, grid), grid, x, z, k, out);
+    }
+
+    /**
+     * Batch variant of findKNearest() reading the grid cells through a cache
+     */
+    public static int findKNearest(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int k,
+            DungeonSpawnBatch out) {
+
+        return kNearest(cache.source(worldSeed, grid), grid, x, z, k, out);
+    }
+
+    private static List<DungeonSpawn> kNearest(SpawnSearch.SpawnSource source, GridParams grid, int x, int z, int k) {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch(Math.max(k, 0));
+        kNearest(source, grid, x, z, k, batch);
+        return batch.toList();
+    }
+
+    private static int kNearest(SpawnSearch.SpawnSource source, GridParams grid, int x, int z, int k,
+                                DungeonSpawnBatch out) {
+        out.clear();
+        if (k <= 0) {
+            return 0;
+        }
+
+        out.ensureCapacity(k);
+        for (long cell : nearestCells(source, grid, x, z, k)) {
+            addCell(source, (int) (cell >> 32), (int) cell, out);
+        }
+        return k;
+    }
+
+    /**
+     * The k grid cells holding the dungeons nearest to (x, z), nearest first
+     */
+    private static long[] nearestCells(SpawnSearch.CellSource source, GridParams grid, int x, int z, int k) {
+        SpawnHeap heap = new SpawnHeap(k);
+        SpawnSearch.nearestCells(source, grid, x, z, Integer.MAX_VALUE - 1, heap);
+
+        long[] cells = new long[k];
+        heap.drainSorted(cells, null);
+        return cells;
+    }
+
+    /**
+     * Primitive variant of findKNearest(). Results are written nearest first; ties are
+     * broken by the lower grid cell, as in the row-major scans.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param x Block X coordinate of the query point
+     * @param z Block Z coordinate of the query point
+     * @param k Number of dungeons wanted
+     * @param outChunks Receives the packed spawn chunks (see packChunk), or null
+     * @param outBlocks Receives the dungeon block positions packed the same way, or null
+     * @return Number of dungeons written (k, or 0 if k is not positive)
+     */
+    public static int findKNearest(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int k,
+            long[] outChunks,
+            long[] outBlocks) {
+
+        if (k <= 0) {
+            return 0;
+        }
+
+        SpawnSearch.SpawnSource source = SpawnSearch.direct(worldSeed, grid);
+        long[] cells = nearestCells(source, grid, x, z, k);
+        for (int i = 0; i < k; i++) {
+            int gridX = (int) (cells[i] >> 32);
+            int gridZ = (int) cells[i];
+            if (outChunks != null) {
+                outChunks[i] = source.spawnChunk(gridX, gridZ);
+            }
+            if (outBlocks != null) {
+                outBlocks[i] = source.spawnBlock(gridX, gridZ);
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Finds every predicted dungeon spawn within radiusBlocks of given coordinates, nearest first
+     */
+    public static List<DungeonSpawn> findWithinRadius(
+            long worldSeed,
+            int spawnFrequency,
+            int x,
+            int z,
+            int radiusBlocks) {
+
+        return findWithinRadius(worldSeed, GridParams.of(spawnFrequency), x, z, radiusBlocks);
+    }
+
+    /**
+     * Finds every predicted dungeon spawn within radiusBlocks of given coordinates, nearest first.
+     * Only the grid cells whose possible dungeon area intersects the radius are evaluated.
+     */
+    public static List<DungeonSpawn> findWithinRadius(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int radiusBlocks) {
+
+        return withinRadius(SpawnSearch.direct(worldSeed, grid), grid, x, z, radiusBlocks);
+    }
+
+    /**
+     * Variant of findWithinRadius() reading the grid cells through a cache
+     */
+    public static List<DungeonSpawn> findWithinRadius(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int radiusBlocks) {
+
+        return withinRadius(cache.source(worldSeed, grid), grid, x, z, radiusBlocks);
+    }
+
+    /**
+     * Batch variant of findWithinRadius(), nearest first
+     *
+     * @param out Cleared, then receives the dungeons within the radius
+     * @return Number of dungeons written
+     */
+    public static int findWithinRadius(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int radiusBlocks,
+            DungeonSpawnBatch out) {
+
+        return withinRadius(SpawnSearch.direct(worldSeed, grid), grid, x, z, radiusBlocks, out);
+    }
+
+    /**
+     * Batch variant of findWithinRadius() reading the grid cells through a cache
+     */
+    public static int findWithinRadius(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int radiusBlocks,
+            DungeonSpawnBatch out) {
+
+        return withinRadius(cache.source(worldSeed, grid), grid, x, z, radiusBlocks, out);
+    }
+
+    private static List<DungeonSpawn> withinRadius(SpawnSearch.SpawnSource source, GridParams grid,
+                                                   int x, int z, int radiusBlocks) {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch();
+        withinRadius(source, grid, x, z, radiusBlocks, batch);
+        return batch.toList();
+    }
+
+    private static int withinRadius(SpawnSearch.SpawnSource source, GridParams grid,
+                                    int x, int z, int radiusBlocks, DungeonSpawnBatch out) {
+        out.clear();
+        if (radiusBlocks < 0) {
+            return 0;
+        }
+
+        SpawnSearch.cellsWithin(source, grid, x, z, radiusBlocks,
+            (gridX, gridZ, block, distance) -> addCell(source, gridX, gridZ, out));
+
+        out.sortByDistance(x, z);
+        return out.size();
+    }
+
+    /**
+     * Primitive variant of findWithinRadius(). Results are written in ring order around the
+     * query point (roughly, but not strictly, nearest first) and are not sorted.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param x Block X coordinate of the query point
+     * @param z Block Z coordinate of the query point
+     * @param radiusBlocks Search radius in blocks
+     * @param outChunks Receives the packed spawn chunks (see packChunk), or null
+     * @param outBlocks Receives the dungeon block positions packed the same way, or null
+     * @return Number of dungeons found. Only as many as fit in the output arrays are written;
+     *         a larger return value tells the caller to retry with bigger arrays.
+     */
+    public static int findWithinRadius(
+            long worldSeed,
+            GridParams grid,
+            int x,
+            int z,
+            int radiusBlocks,
+            long[] outChunks,
+            long[] outBlocks) {
+
+        if (radiusBlocks < 0) {
+            return 0;
+        }
+
+        // Same walk as SpawnSearch.cellsWithin(), inlined so that no source, visitor or counter
+        // object is needed
+        int centerGridX = grid.gridIndex(x >> 4);
+        int centerGridZ = grid.gridIndex(z >> 4);
+        double radiusSq = (double) radiusBlocks * radiusBlocks;
+        int found = 0;
+
+        for (int ring = 0; SpawnSearch.ringDistance(grid, centerGridX, centerGridZ, ring, x, z) <= radiusBlocks; ring++) {
+            int cells = SpawnSearch.ringSize(ring);
+            for (int i = 0; i < cells; i++) {
+                long cell = SpawnSearch.ringCell(centerGridX, centerGridZ, ring, i);
+                int gridX = (int) (cell >> 32);
+                int gridZ = (int) cell;
+                if (SpawnSearch.cellDistanceSq(grid, gridX, gridZ, x, z) <= radiusSq) {
+                    long chunk = evaluateGridCell(worldSeed, grid, gridX, gridZ);
+                    long block = spawnBlockOfChunk(worldSeed, chunk);
+                    if (SpawnSearch.distanceSq(block, x, z) <= radiusSq) {
+                        if (outChunks != null && found < outChunks.length) {
+                            outChunks[found] = chunk;
+                        }
+                        if (outBlocks != null && found < outBlocks.length) {
+                            outBlocks[found] = block;
+                        }
+                        found++;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the spawn base points that could have produced a dungeon entrance at a block.
+     *
+     * Inverts the getNearbyCoord offset: the entrance is 40-100 blocks from its base point, so
+     * only spawn chunks whose base point lies in that annulus around the block qualify. Just the
+     * few grid cells whose chunk range comes within 100 blocks of the block are evaluated, and
+     * each candidate carries the offset it would need. Candidates whose predicted offset is
+     * exactly that one are flagged with matchesPrediction.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param blockX Block X coordinate of the dungeon entrance
+     * @param blockZ Block Z coordinate of the dungeon entrance
+     * @return Candidate base points in row-major grid order
+     */
+    public static List<BasePointCandidate> findBasePointsCovering(
+            long worldSeed,
+            int spawnFrequency,
+            int blockX,
+            int blockZ) {
+
+        return findBasePointsCovering(worldSeed, GridParams.of(spawnFrequency), blockX, blockZ);
+    }
+
+    /**
+     * Finds the spawn base points that could have produced a dungeon entrance at a block.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @param blockX Block X coordinate of the dungeon entrance
+     * @param blockZ Block Z coordinate of the dungeon entrance
+     * @return Candidate base points in row-major grid order
+     */
+    public static List<BasePointCandidate> findBasePointsCovering(
+            long worldSeed,
+            GridParams grid,
+            int blockX,
+            int blockZ) {
+
+        return basePointsCovering(SpawnSearch.direct(worldSeed, grid), grid, blockX, blockZ);
+    }
+
+    /**
+     * Variant of findBasePointsCovering() reading the grid cells through a cache
+     */
+    public static List<BasePointCandidate> findBasePointsCovering(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int blockX,
+            int blockZ) {
+
+        return basePointsCovering(cache.source(worldSeed, grid), grid, blockX, blockZ);
+    }
+
+    /**
+     * Batch variant of findBasePointsCovering(), in the same row-major order.
+     *
+     * Each candidate is stored as the full predicted spawn of its grid cell. The fields of
+     * BasePointCandidate follow from it: the base point is chunk * 16 + 4, the needed offset is
+     * the queried block minus the base point, and matchesPrediction holds exactly when the
+     * stored block is the queried block.
+     *
+     * @param out Cleared, then receives the spawn of every candidate
+     * @return Number of candidates written
+     */
+    public static int findBasePointsCovering(
+            long worldSeed,
+            GridParams grid,
+            int blockX,
+            int blockZ,
+            DungeonSpawnBatch out) {
+
+        return basePointsCovering(SpawnSearch.direct(worldSeed, grid), grid, blockX, blockZ, out);
+    }
+
+    /**
+     * Batch variant of findBasePointsCovering() reading the grid cells through a cache
+     */
+    public static int findBasePointsCovering(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int blockX,
+            int blockZ,
+            DungeonSpawnBatch out) {
+
+        return basePointsCovering(cache.source(worldSeed, grid), grid, blockX, blockZ, out);
+    }
+
+    private static List<BasePointCandidate> basePointsCovering(SpawnSearch.SpawnSource source, GridParams grid,
+                                                               int blockX, int blockZ) {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch(4);
+        basePointsCovering(source, grid, blockX, blockZ, batch);
+
+        List<BasePointCandidate> candidates = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            int baseX = batch.getChunkX(i) * 16 + 4;
+            int baseZ = batch.getChunkZ(i) * 16 + 4;
+            // The predicted offset is the needed one exactly when the predicted entrance is the block
+            boolean matches = batch.getBlockX(i) == blockX && batch.getBlockZ(i) == blockZ;
+            candidates.add(new BasePointCandidate(new ChunkCoord(batch.getChunkX(i), batch.getChunkZ(i)),
+                baseX, baseZ, blockX - baseX, blockZ - baseZ, matches));
+        }
+        return candidates;
+    }
+
+    private static int basePointsCovering(SpawnSearch.SpawnSource source, GridParams grid,
+                                          int blockX, int blockZ, DungeonSpawnBatch out) {
+        // Chunks whose base point (chunk * 16 + 4) is less than MAX_OFFSET blocks away on each axis
+        int reach = SpawnSearch.MAX_OFFSET - 1;
+        int minGridX = grid.gridIndex(baseChunk((long) blockX - reach));
+        int minGridZ = grid.gridIndex(baseChunk((long) blockZ - reach));
+        int maxGridX = grid.gridIndex(baseChunk((long) blockX + reach));
+        int maxGridZ = grid.gridIndex(baseChunk((long) blockZ + reach));
+
+        out.clear();
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            for (int gridZ = minGridZ; gridZ <= maxGridZ; gridZ++) {
+                long chunk = source.spawnChunk(gridX, gridZ);
+                int offsetX = blockX - (unpackChunkX(chunk) * 16 + 4);
+                int offsetZ = blockZ - (unpackChunkZ(chunk) * 16 + 4);
+                if (SpawnSearch.isReachableOffset(offsetX, offsetZ)) {
+                    addCell(source, gridX, gridZ, out);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Predicts every dungeon whose entrance lies inside a rectangle of blocks.
+     *
+     * Only the grid cells whose possible entrance positions (spawn chunk range widened by the
+     * 100 block offset) intersect the rectangle are evaluated, so the cost depends on the size
+     * of the rectangle and not on its distance from the origin.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param minBlockX Lowest block X coordinate, inclusive
+     * @param minBlockZ Lowest block Z coordinate, inclusive
+     * @param maxBlockX Highest block X coordinate, inclusive
+     * @param maxBlockZ Highest block Z coordinate, inclusive
+     * @return Dungeons inside the rectangle in row-major grid order
+     */
+    public static List<DungeonSpawn> predictDungeonsInBox(
+            long worldSeed,
+            int spawnFrequency,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return predictDungeonsInBox(worldSeed, GridParams.of(spawnFrequency), minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Predicts every dungeon whose entrance lies inside a rectangle of blocks.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @return Dungeons inside the rectangle in row-major grid order
+     */
+    public static List<DungeonSpawn> predictDungeonsInBox(
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return dungeonsInBox(SpawnSearch.direct(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Variant of predictDungeonsInBox() reading the grid cells through a cache
+     */
+    public static List<DungeonSpawn> predictDungeonsInBox(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return dungeonsInBox(cache.source(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Batch variant of predictDungeonsInBox(), in row-major grid order
+     *
+     * @param out Cleared, then receives the dungeons inside the rectangle
+     * @return Number of dungeons written
+     */
+    public static int predictDungeonsInBox(
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ,
+            DungeonSpawnBatch out) {
+
+        return dungeonsInBox(SpawnSearch.direct(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ, out);
+    }
+
+    /**
+     * Batch variant of predictDungeonsInBox() reading the grid cells through a cache
+     */
+    public static int predictDungeonsInBox(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ,
+            DungeonSpawnBatch out) {
+
+        return dungeonsInBox(cache.source(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ, out);
+    }
+
+    private static List<DungeonSpawn> dungeonsInBox(SpawnSearch.SpawnSource source, GridParams grid,
+                                                    int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch();
+        dungeonsInBox(source, grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ, batch);
+        return batch.toList();
+    }
+
+    private static int dungeonsInBox(SpawnSearch.SpawnSource source, GridParams grid,
+                                     int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ,
+                                     DungeonSpawnBatch out) {
+        out.clear();
+        if (minBlockX > maxBlockX || minBlockZ > maxBlockZ) {
+            return 0;
+        }
+
+        int minGridX = SpawnSearch.firstCellReaching(grid, minBlockX);
+        int minGridZ = SpawnSearch.firstCellReaching(grid, minBlockZ);
+        int maxGridX = SpawnSearch.lastCellReaching(grid, maxBlockX);
+        int maxGridZ = SpawnSearch.lastCellReaching(grid, maxBlockZ);
+
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            for (int gridZ = minGridZ; gridZ <= maxGridZ; gridZ++) {
+                long block = source.spawnBlock(gridX, gridZ);
+                int blockX = (int) (block >> 32);
+                int blockZ = (int) block;
+                if (blockX >= minBlockX && blockX <= maxBlockX && blockZ >= minBlockZ && blockZ <= maxBlockZ) {
+                    addCell(source, gridX, gridZ, out);
+                }
+            }
+        }
+        return out.size();
+    }
+
+    /**
+     * Counts the dungeons whose entrance lies inside a rectangle of blocks.
+     *
+     * Every grid cell holds exactly one dungeon, so a cell whose possible entrance positions lie
+     * entirely inside the rectangle always counts as one without being evaluated. Only the band
+     * of cells straddling the rectangle's edges is evaluated, which makes the cost proportional
+     * to the perimeter instead of the area.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @param minBlockX Lowest block X coordinate, inclusive
+     * @param minBlockZ Lowest block Z coordinate, inclusive
+     * @param maxBlockX Highest block X coordinate, inclusive
+     * @param maxBlockZ Highest block Z coordinate, inclusive
+     * @return Number of dungeons inside the rectangle, same as predictDungeonsInBox().size()
+     */
+    public static long countDungeonsInBox(
+            long worldSeed,
+            int spawnFrequency,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return countDungeonsInBox(worldSeed, GridParams.of(spawnFrequency), minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Counts the dungeons whose entrance lies inside a rectangle of blocks.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @return Number of dungeons inside the rectangle, same as predictDungeonsInBox().size()
+     */
+    public static long countDungeonsInBox(
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return countInBox(SpawnSearch.direct(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Variant of countDungeonsInBox() reading the grid cells through a cache
+     */
+    public static long countDungeonsInBox(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return countInBox(cache.source(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    private static long countInBox(SpawnSearch.CellSource source, GridParams grid,
+                                   int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        if (minBlockX > maxBlockX || minBlockZ > maxBlockZ) {
+            return 0;
+        }
+
+        int minGridX = SpawnSearch.firstCellReaching(grid, minBlockX);
+        int minGridZ = SpawnSearch.firstCellReaching(grid, minBlockZ);
+        int maxGridX = SpawnSearch.lastCellReaching(grid, maxBlockX);
+        int maxGridZ = SpawnSearch.lastCellReaching(grid, maxBlockZ);
+
+        // Cells that can't leave the rectangle, possibly none
+        int innerMinGridX = SpawnSearch.firstCellInside(grid, minBlockX);
+        int innerMinGridZ = SpawnSearch.firstCellInside(grid, minBlockZ);
+        int innerMaxGridX = SpawnSearch.lastCellInside(grid, maxBlockX);
+        int innerMaxGridZ = SpawnSearch.lastCellInside(grid, maxBlockZ);
+
+        long count = 0;
+        boolean hasInner = innerMinGridX <= innerMaxGridX && innerMinGridZ <= innerMaxGridZ;
+        if (hasInner) {
+            count = ((long) innerMaxGridX - innerMinGridX + 1) * ((long) innerMaxGridZ - innerMinGridZ + 1);
+        }
+
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            if (hasInner && gridX >= innerMinGridX && gridX <= innerMaxGridX) {
+                // Only the strips left and right of the inner cells
+                count += countInRow(source, gridX, minGridZ, innerMinGridZ - 1,
+                    minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+                count += countInRow(source, gridX, innerMaxGridZ + 1, maxGridZ,
+                    minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+            } else {
+                count += countInRow(source, gridX, minGridZ, maxGridZ,
+                    minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of cells gridZ in [fromGridZ, toGridZ] of row gridX whose dungeon lies inside the rectangle
+     */
+    private static int countInRow(SpawnSearch.CellSource source, int gridX, int fromGridZ, int toGridZ,
+                                  int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        int count = 0;
+        for (int gridZ = fromGridZ; gridZ <= toGridZ; gridZ++) {
+            long block = source.spawnBlock(gridX, gridZ);
+            int blockX = (int) (block >> 32);
+            int blockZ = (int) block;
+            if (blockX >= minBlockX && blockX <= maxBlockX && blockZ >= minBlockZ && blockZ <= maxBlockZ) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the dungeons whose entrance lies inside a rectangle of blocks, per tower type.
+     *
+     * Unlike countDungeonsInBox(), the tower type depends on the exact entrance position, so
+     * every cell that can reach the rectangle has to be evaluated; the cost is proportional
+     * to the area. Nothing is collected besides the counters.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @return Number of dungeons per tower type, types without dungeons are left out
+     */
+    public static Map<String, Long> countDungeonsInBoxByTowerType(
+            long worldSeed,
+            int spawnFrequency,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return countDungeonsInBoxByTowerType(worldSeed, GridParams.of(spawnFrequency),
+            minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Counts the dungeons whose entrance lies inside a rectangle of blocks, per tower type.
+     *
+     * @param worldSeed The Minecraft world seed
+     * @param grid The grid parameters for the spawn frequency
+     * @return Number of dungeons per tower type, types without dungeons are left out
+     */
+    public static Map<String, Long> countDungeonsInBoxByTowerType(
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return towerTypeCounts(SpawnSearch.direct(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    /**
+     * Variant of countDungeonsInBoxByTowerType() reading the grid cells through a cache
+     */
+    public static Map<String, Long> countDungeonsInBoxByTowerType(
+            GridCellCache cache,
+            long worldSeed,
+            GridParams grid,
+            int minBlockX,
+            int minBlockZ,
+            int maxBlockX,
+            int maxBlockZ) {
+
+        return towerTypeCounts(cache.source(worldSeed, grid), grid, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+    }
+
+    private static Map<String, Long> towerTypeCounts(SpawnSearch.SpawnSource source, GridParams grid,
+                                                     int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        Map<String, Long> counts = new TreeMap<>();
+        if (minBlockX > maxBlockX || minBlockZ > maxBlockZ) {
+            return counts;
+        }
+
+        long[] byOrdinal = new long[TowerType.COUNT];
+
+        int minGridX = SpawnSearch.firstCellReaching(grid, minBlockX);
+        int minGridZ = SpawnSearch.firstCellReaching(grid, minBlockZ);
+        int maxGridX = SpawnSearch.lastCellReaching(grid, maxBlockX);
+        int maxGridZ = SpawnSearch.lastCellReaching(grid, maxBlockZ);
+
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            for (int gridZ = minGridZ; gridZ <= maxGridZ; gridZ++) {
+                long block = source.spawnBlock(gridX, gridZ);
+                int blockX = (int) (block >> 32);
+                int blockZ = (int) block;
+                if (blockX >= minBlockX && blockX <= maxBlockX && blockZ >= minBlockZ && blockZ <= maxBlockZ) {
+                    byOrdinal[source.towerType(gridX, gridZ)]++;
+                }
+            }
+        }
+
+        for (int ordinal = 0; ordinal < byOrdinal.length; ordinal++) {
+            if (byOrdinal[ordinal] > 0) {
+                counts.put(TowerType.byOrdinal(ordinal).name(), byOrdinal[ordinal]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Chunk whose base point (chunk * 16 + 4) is the last one at or below a block coordinate,
+     * clamped to the int range
+     */
+    private static int baseChunk(long block) {
+        long chunk = Math.floorDiv(block - 4, 16);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, chunk));
     }
 
     /**
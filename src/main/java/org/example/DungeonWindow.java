@@ -0,0 +1,144 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+
+/**
+ * Sliding window of the dungeons around a moving player, updated incrementally.
+ *
+ * The window holds the dungeons of the (2 * radius + 1)^2 grid cells centered on the player's
+ * cell, the same cells predictDungeonSpawns() covers for a player at its center. It only changes
+ * when the player crosses a cell boundary, and then only the newly exposed strip of cells is
+ * evaluated: cells are stored toroidally (slot = grid index modulo the window width), so each
+ * entering cell takes the slot of exactly the cell that left, and an update costs O(edge)
+ * instead of O(area).
+ *
+ * Not thread-safe; use one window per player. Windows of many players can share the grid cells
+ * they evaluate through a GridCellCache.
+ */
+public final class DungeonWindow {
+
+    /**
+     * Receives the changes of a window
+     */
+    public interface Listener {
+        void entered(DungeonSpawn spawn);
+
+        void left(DungeonSpawn spawn);
+    }
+
+    private final GridParams grid;
+    private final SpawnSearch.SpawnSource source;
+    private final int radius;
+    private final int width;
+    private final DungeonSpawn[] slots;
+
+    private boolean placed;
+    private int centerGridX;
+    private int centerGridZ;
+
+    public DungeonWindow(long worldSeed, int spawnFrequency, int radius) {
+        this(worldSeed, GridParams.of(spawnFrequency), radius);
+    }
+
+    /**
+     * @param radius How many grid cells to keep in each direction from the player's cell
+     */
+    public DungeonWindow(long worldSeed, GridParams grid, int radius) {
+        this(SpawnSearch.direct(worldSeed, grid), grid, radius);
+    }
+
+    /**
+     * Window evaluating its cells through a cache shared with other windows
+     */
+    public DungeonWindow(GridCellCache cache, long worldSeed, GridParams grid, int radius) {
+        this(cache.source(worldSeed, grid), grid, radius);
+    }
+
+    private DungeonWindow(SpawnSearch.SpawnSource source, GridParams grid, int radius) {
+        if (radius < 0 || radius > 1024) {
+            throw new IllegalArgumentException("radius must be between 0 and 1024");
+        }
+        this.grid = grid;
+        this.source = source;
+        this.radius = radius;
+        this.width = 2 * radius + 1;
+        this.slots = new DungeonSpawn[width * width];
+    }
+
+    /**
+     * Moves the player. On the first call every dungeon of the window enters; afterwards only
+     * the dungeons of cells entering or leaving the window are reported.
+     *
+     * @param blockX Block X coordinate of the player
+     * @param blockZ Block Z coordinate of the player
+     * @param listener Receives the changes, or null
+     * @return true if the window changed
+     */
+    public boolean moveTo(int blockX, int blockZ, Listener listener) {
+        int gridX = grid.gridIndex(blockX >> 4);
+        int gridZ = grid.gridIndex(blockZ >> 4);
+        if (placed && gridX == centerGridX && gridZ == centerGridZ) {
+            return false;
+        }
+
+        int oldMinX = centerGridX - radius;
+        int oldMinZ = centerGridZ - radius;
+        boolean wasPlaced = placed;
+        placed = true;
+        centerGridX = gridX;
+        centerGridZ = gridZ;
+
+        for (int x = gridX - radius; x <= gridX + radius; x++) {
+            boolean columnKept = wasPlaced && x - oldMinX >= 0 && x - oldMinX < width;
+            for (int z = gridZ - radius; z <= gridZ + radius; z++) {
+                if (columnKept && z - oldMinZ >= 0 && z - oldMinZ < width) {
+                    // Part of the old window too; jump over the kept run of the column
+                    z = oldMinZ + width - 1;
+                    continue;
+                }
+
+                int slot = Math.floorMod(x, width) * width + Math.floorMod(z, width);
+                DungeonSpawn leaving = slots[slot];
+                DungeonSpawn entering = DungeonSpawnPredictor.resolveCell(source, x, z);
+                slots[slot] = entering;
+                if (listener != null) {
+                    if (leaving != null) {
+                        listener.left(leaving);
+                    }
+                    listener.entered(entering);
+                }
+            }
+        }
+        return true;
+    }
+
+    public int getCenterGridX() {
+        return centerGridX;
+    }
+
+    public int getCenterGridZ() {
+        return centerGridZ;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * The dungeons currently in the window, in row-major grid order; empty before the first moveTo()
+     */
+    public List<DungeonSpawn> getDungeons() {
+        List<DungeonSpawn> spawns = new ArrayList<>(slots.length);
+        if (!placed) {
+            return spawns;
+        }
+        for (int x = centerGridX - radius; x <= centerGridX + radius; x++) {
+            for (int z = centerGridZ - radius; z <= centerGridZ + radius; z++) {
+                spawns.add(slots[Math.floorMod(x, width) * width + Math.floorMod(z, width)]);
+            }
+        }
+        return spawns;
+    }
+}
@@ -0,0 +1,305 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+
+/**
+ * Bounded concurrent cache of fully resolved grid cells: spawn chunk, dungeon entrance and
+ * tower type, stored as primitives and keyed by (worldSeed, spawnFrequency, gridX, gridZ).
+ *
+ * The entries are split over independently locked stripes picked by the key hash, so threads
+ * working on different cells rarely contend. Each stripe is an open-addressing table over a
+ * fixed number of entry slots; when the slots run out, a CLOCK hand evicts the first entry not
+ * used since the hand last passed it. Cells are evaluated outside the lock, and a cell loaded
+ * by two threads at once is simply kept once.
+ *
+ * One cache can serve any number of worlds. Pass it to the DungeonSpawnPredictor query methods
+ * that take a GridCellCache to have them read through it.
+ */
+public final class GridCellCache {
+
+    /**
+     * Default number of entries (about 4 MB)
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GridCellCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Maximum number of cached cells
+     */
+    public GridCellCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 28) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^28");
+        }
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(capacity));
+        this.stripes = new Stripe[stripeCount];
+        this.stripeMask = stripeCount - 1;
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder entries over the first stripes
+            int stripeCapacity = capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Resolved spawn of a grid cell, evaluated on a miss
+     */
+    public DungeonSpawn get(long worldSeed, GridParams grid, int gridX, int gridZ) {
+        long[] entry = new long[3];
+        load(worldSeed, grid, gridX, gridZ, entry);
+        return new DungeonSpawn(
+            new ChunkCoord(DungeonSpawnPredictor.unpackChunkX(entry[0]), DungeonSpawnPredictor.unpackChunkZ(entry[0])),
+            (int) (entry[1] >> 32), (int) entry[1], TowerType.byOrdinal((int) entry[2]));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Number of cached cells
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Drops every cached cell. The counters are kept.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * View of the cache for one world, for the searches in SpawnSearch
+     */
+    SpawnSearch.SpawnSource source(long worldSeed, GridParams grid) {
+        return new SpawnSearch.SpawnSource() {
+            private final long[] entry = new long[3];
+
+            @Override
+            public long spawnBlock(int gridX, int gridZ) {
+                load(worldSeed, grid, gridX, gridZ, entry);
+                return entry[1];
+            }
+
+            @Override
+            public long spawnChunk(int gridX, int gridZ) {
+                load(worldSeed, grid, gridX, gridZ, entry);
+                return entry[0];
+            }
+
+            @Override
+            public int towerType(int gridX, int gridZ) {
+                load(worldSeed, grid, gridX, gridZ, entry);
+                return (int) entry[2];
+            }
+        };
+    }
+
+    /**
+     * Looks up a cell, evaluating and inserting it on a miss
+     *
+     * @param out Receives the packed spawn chunk, the packed entrance block and the TowerType ordinal
+     */
+    private void load(long worldSeed, GridParams grid, int gridX, int gridZ, long[] out) {
+        int frequency = grid.spawnFrequency;
+        long cell = ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+        long hash = hash(worldSeed, frequency, cell);
+        // High bits pick the stripe, low bits the table position within it
+        Stripe stripe = stripes[(int) (hash >>> 40) & stripeMask];
+
+        if (stripe.find(hash, worldSeed, frequency, cell, out)) {
+            hits.increment();
+            return;
+        }
+        misses.increment();
+
+        long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ);
+        long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+        int towerType = TowerType.predictOrdinal(worldSeed, (int) (block >> 32), (int) block);
+        out[0] = chunk;
+        out[1] = block;
+        out[2] = towerType;
+
+        if (stripe.insert(hash, worldSeed, frequency, cell, chunk, block, towerType)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3 over the combined key
+     */
+    private static long hash(long worldSeed, int frequency, long cell) {
+        long h = worldSeed ^ (frequency * 0x9E3779B97F4A7C15L) ^ Long.rotateLeft(cell, 29);
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Fixed number of entry slots plus a linear-probing table of slot numbers
+     */
+    private static final class Stripe {
+        // Entry slots
+        private final long[] hashes;
+        private final long[] seeds;
+        private final int[] frequencies;
+        private final long[] cells;
+        private final long[] chunks;
+        private final long[] blocks;
+        private final byte[] towerTypes;
+        private final boolean[] referenced;
+
+        // Slot number + 1 per table position, 0 if free; at most half full
+        private final int[] table;
+        private final int tableMask;
+
+        private int size;
+        private int hand;
+
+        Stripe(int capacity) {
+            this.hashes = new long[capacity];
+            this.seeds = new long[capacity];
+            this.frequencies = new int[capacity];
+            this.cells = new long[capacity];
+            this.chunks = new long[capacity];
+            this.blocks = new long[capacity];
+            this.towerTypes = new byte[capacity];
+            this.referenced = new boolean[capacity];
+            this.table = new int[Integer.highestOneBit(capacity) << 2];
+            this.tableMask = table.length - 1;
+        }
+
+        synchronized boolean find(long hash, long worldSeed, int frequency, long cell, long[] out) {
+            int slot = slotOf(hash, worldSeed, frequency, cell);
+            if (slot < 0) {
+                return false;
+            }
+            referenced[slot] = true;
+            out[0] = chunks[slot];
+            out[1] = blocks[slot];
+            out[2] = towerTypes[slot];
+            return true;
+        }
+
+        /**
+         * @return true if an entry was evicted to make room
+         */
+        synchronized boolean insert(long hash, long worldSeed, int frequency, long cell,
+                                    long chunk, long block, int towerType) {
+            if (slotOf(hash, worldSeed, frequency, cell) >= 0) {
+                // Loaded concurrently by another thread
+                return false;
+            }
+
+            int slot;
+            boolean evicted = false;
+            if (size < hashes.length) {
+                slot = size++;
+            } else {
+                // CLOCK: clear reference bits until an unreferenced entry comes up
+                while (referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = hand + 1 == hashes.length ? 0 : hand + 1;
+                }
+                slot = hand;
+                hand = hand + 1 == hashes.length ? 0 : hand + 1;
+                remove(slot);
+                evicted = true;
+            }
+
+            hashes[slot] = hash;
+            seeds[slot] = worldSeed;
+            frequencies[slot] = frequency;
+            cells[slot] = cell;
+            chunks[slot] = chunk;
+            blocks[slot] = block;
+            towerTypes[slot] = (byte) towerType;
+            referenced[slot] = false;
+
+            int i = (int) hash & tableMask;
+            while (table[i] != 0) {
+                i = (i + 1) & tableMask;
+            }
+            table[i] = slot + 1;
+            return evicted;
+        }
+
+        synchronized void clear() {
+            Arrays.fill(table, 0);
+            size = 0;
+            hand = 0;
+        }
+
+        private int slotOf(long hash, long worldSeed, int frequency, long cell) {
+            for (int i = (int) hash & tableMask; table[i] != 0; i = (i + 1) & tableMask) {
+                int slot = table[i] - 1;
+                if (hashes[slot] == hash && cells[slot] == cell && seeds[slot] == worldSeed
+                        && frequencies[slot] == frequency) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Removes a slot from the probing table, shifting later entries of its probe run back
+         */
+        private void remove(int slot) {
+            int i = (int) hashes[slot] & tableMask;
+            while (table[i] != slot + 1) {
+                i = (i + 1) & tableMask;
+            }
+
+            int j = i;
+            while (true) {
+                j = (j + 1) & tableMask;
+                if (table[j] == 0) {
+                    break;
+                }
+                int home = (int) hashes[table[j] - 1] & tableMask;
+                // Move table[j] into the gap unless its home lies cyclically in (i, j]
+                boolean homeInRange = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+                if (!homeInRange) {
+                    table[i] = table[j];
+                    i = j;
+                }
+            }
+            table[i] = 0;
+        }
+    }
+}
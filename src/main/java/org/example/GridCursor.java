@@ -0,0 +1,261 @@
+package org.example;
+
+/**
+ * Walks the dungeon spawn grid one cell at a time with strength-reduced seed derivation.
+ *
+ * The grid seed (gridX * 341873128712L + gridZ * 132897987541L + worldSeed + 10387312) * 14357617
+ * is linear in gridX and gridZ (modulo 2^64), so moving to a neighbouring cell only has to add a
+ * constant per-axis step to the previous seed. The per-world term is folded once at construction.
+ * The chunk origin of the cell (grid * max) is carried forward in the same way.
+ *
+ * This is the shared engine behind every grid enumeration (radius scan, box scan, ring scan).
+ * A cursor is mutable and not thread-safe; use one per thread.
+ */
+public final class GridCursor {
+
+    // Per-axis seed steps, i.e. the grid seed multipliers pre-multiplied by 14357617
+    static final long X_STEP = 341873128712L * 14357617;
+    static final long Z_STEP = 132897987541L * 14357617;
+
+    // Cells per block of the scalar multi-frequency fillRow()
+    private static final int DRAW_BLOCK = 1024;
+
+    private final long worldTerm;
+    private final GridParams params;
+    private final int cellSize;
+    private final GridEngine engine;
+
+    private int gridX;
+    private int gridZ;
+    private int chunkOriginX;
+    private int chunkOriginZ;
+    private long seed;
+
+    // Raw draws of the scalar multi-frequency fillRow(), reused across rows
+    private int[] firstDraws = new int[0];
+    private int[] secondDraws = new int[0];
+
+    /**
+     * @param worldSeed The Minecraft world seed
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     */
+    public GridCursor(long worldSeed, int spawnFrequency) {
+        this(worldSeed, GridParams.of(spawnFrequency), GridEngine.getDefault());
+    }
+
+    /**
+     * @param worldSeed The Minecraft world seed
+     * @param params The grid parameters for the spawn frequency
+     */
+    public GridCursor(long worldSeed, GridParams params) {
+        this(worldSeed, params, GridEngine.getDefault());
+    }
+
+    /**
+     * @param worldSeed The Minecraft world seed
+     * @param params The grid parameters for the spawn frequency
+     * @param engine The engine used by fillRow()
+     */
+    public GridCursor(long worldSeed, GridParams params, GridEngine engine) {
+        if (!engine.isAvailable()) {
+            throw new IllegalStateException(engine + " grid engine is not available");
+        }
+
+        this.worldTerm = (worldSeed + 10387312) * 14357617;
+        this.params = params;
+        this.cellSize = params.cellSize;
+        this.engine = engine;
+        moveTo(0, 0);
+    }
+
+    /**
+     * Positions the cursor on an arbitrary grid cell
+     */
+    public void moveTo(int gridX, int gridZ) {
+        this.gridX = gridX;
+        this.gridZ = gridZ;
+        this.chunkOriginX = gridX * cellSize;
+        this.chunkOriginZ = gridZ * cellSize;
+        this.seed = gridX * X_STEP + gridZ * Z_STEP + worldTerm;
+    }
+
+    /**
+     * Moves to (gridX + 1, gridZ)
+     */
+    public void nextX() {
+        gridX++;
+        chunkOriginX += cellSize;
+        seed += X_STEP;
+    }
+
+    /**
+     * Moves to (gridX - 1, gridZ)
+     */
+    public void previousX() {
+        gridX--;
+        chunkOriginX -= cellSize;
+        seed -= X_STEP;
+    }
+
+    /**
+     * Moves to (gridX, gridZ + 1)
+     */
+    public void nextZ() {
+        gridZ++;
+        chunkOriginZ += cellSize;
+        seed += Z_STEP;
+    }
+
+    /**
+     * Moves to (gridX, gridZ - 1)
+     */
+    public void previousZ() {
+        gridZ--;
+        chunkOriginZ -= cellSize;
+        seed -= Z_STEP;
+    }
+
+    public int getGridX() {
+        return gridX;
+    }
+
+    public int getGridZ() {
+        return gridZ;
+    }
+
+    public GridParams getParams() {
+        return params;
+    }
+
+    /**
+     * The grid seed of the current cell, identical to GridRandom.gridSeed()
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Evaluates the current cell.
+     *
+     * @return The dungeon spawn chunk of this cell packed as (chunkX << 32) | (chunkZ & 0xFFFFFFFFL)
+     */
+    public long spawnChunk() {
+        long offsets = GridRandom.cellOffsets(seed, params);
+        int chunkX = chunkOriginX + (int) (offsets >> 32);
+        int chunkZ = chunkOriginZ + (int) offsets;
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Evaluates count cells along +Z starting at the current cell, then leaves the cursor
+     * on the cell after the last one evaluated.
+     *
+     * @param count Number of cells to evaluate
+     * @param out Receives the packed spawn chunks (see spawnChunk())
+     * @param offset Index in out of the first result
+     */
+    public void fillRow(int count, long[] out, int offset) {
+        if (engine == GridEngine.VECTOR) {
+            GridVectorKernel.fillRow(seed, chunkOriginX, chunkOriginZ, params, count, out, offset);
+            gridZ += count;
+            chunkOriginZ += count * cellSize;
+            seed += count * Z_STEP;
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = spawnChunk();
+            nextZ();
+        }
+    }
+
+    /**
+     * Evaluates count cells along +Z for several spawn frequencies at once, then leaves the
+     * cursor on the cell after the last one evaluated. The grid seed and the two raw next(31)
+     * draws don't depend on the frequency, so they are computed once per cell; only the
+     * rejection check, the bound reduction and the cell size are applied per frequency. A draw
+     * rejected for some frequency falls back to GridRandom.cellOffsets() for that one.
+     *
+     * The cells are the same grid indices for every frequency, so they cover different chunks
+     * when the cell sizes differ. The cursor's own parameters are not used.
+     *
+     * @param params The grid parameters of each frequency
+     * @param count Number of cells to evaluate
+     * @param out out[f] receives the packed spawn chunks for params[f]
+     * @param offset Index in each out[f] of the first result
+     */
+    public void fillRow(GridParams[] params, int count, long[][] out, int offset) {
+        if (engine == GridEngine.VECTOR) {
+            GridVectorKernel.fillRow(seed, gridX, gridZ, params, count, out, offset);
+            gridZ += count;
+            chunkOriginZ += count * cellSize;
+            seed += count * Z_STEP;
+            return;
+        }
+
+        // The row is processed in blocks so the draws stay in cache and the scratch arrays,
+        // kept with the cursor for the next rows, stay small whatever the row length
+        if (firstDraws.length < Math.min(count, DRAW_BLOCK)) {
+            firstDraws = new int[Math.min(count, DRAW_BLOCK)];
+            secondDraws = new int[firstDraws.length];
+        }
+        int[] first = firstDraws;
+        int[] second = secondDraws;
+
+        for (int done = 0; done < count; ) {
+            int n = Math.min(first.length, count - done);
+            long blockSeed = seed + done * Z_STEP;
+
+            // Shared part: the two raw draws of every cell of the block
+            long cellSeed = blockSeed;
+            for (int i = 0; i < n; i++) {
+                long s = GridRandom.advance(GridRandom.scramble(cellSeed));
+                first[i] = (int) (s >>> 17);
+                second[i] = (int) (GridRandom.advance(s) >>> 17);
+                cellSeed += Z_STEP;
+            }
+
+            // Per frequency: rejection check, bound reduction (see GridParams.reduce()) and cell origin
+            for (int f = 0; f < params.length; f++) {
+                GridParams p = params[f];
+                long threshold = p.rejectionThreshold;
+                boolean powerOfTwo = p.powerOfTwo;
+                int bound = p.bound;
+                long magic = p.magic;
+                int shift = p.shift;
+                int step = p.cellSize;
+                int originX = gridX * step;
+                int originZ = (gridZ + done) * step;
+                long[] column = out[f];
+                int index = offset + done;
+
+                for (int i = 0; i < n; i++) {
+                    int r1 = first[i];
+                    int r2 = second[i];
+                    int x;
+                    int z;
+                    if (r1 < threshold && r2 < threshold) {
+                        if (powerOfTwo) {
+                            x = (int) ((bound * (long) r1) >> 31);
+                            z = (int) ((bound * (long) r2) >> 31);
+                        } else {
+                            x = r1 - (int) ((r1 * magic) >>> shift) * bound;
+                            z = r2 - (int) ((r2 * magic) >>> shift) * bound;
+                        }
+                    } else {
+                        long offsets = GridRandom.cellOffsets(blockSeed + i * Z_STEP, p);
+                        x = (int) (offsets >> 32);
+                        z = (int) offsets;
+                    }
+                    column[index + i] = ((long) (originX + x) << 32) | ((originZ + z) & 0xFFFFFFFFL);
+                    originZ += step;
+                }
+            }
+            done += n;
+        }
+
+        gridZ += count;
+        chunkOriginZ += count * cellSize;
+        seed += count * Z_STEP;
+    }
+}
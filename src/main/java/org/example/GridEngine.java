@@ -0,0 +1,74 @@
+package org.example;
+
+/**
+ * Selects how rows of grid cells are evaluated. Both engines produce identical output.
+ *
+ * SCALAR evaluates one cell at a time with GridRandom.
+ * VECTOR evaluates several cells per instruction with the jdk.incubator.vector API
+ * (see GridVectorKernel). It is only available when the JVM is started with
+ * --add-modules jdk.incubator.vector.
+ *
+ * The module is incubating: the compiler arguments in pom.xml add it to every build, so each
+ * build prints the "Using incubator modules" warning, and applications (like the surefire
+ * argLine) must pass the same --add-modules flag at runtime to get VECTOR. Without it the
+ * classes still load and SCALAR is used.
+ *
+ * The default engine can be chosen with -Drldpredictor.gridEngine=SCALAR|VECTOR or at
+ * runtime through setDefault(). Without either, VECTOR is used when available.
+ */
+public enum GridEngine {
+    SCALAR,
+    VECTOR;
+
+    private static final boolean VECTOR_AVAILABLE = detectVectorSupport();
+
+    private static volatile GridEngine defaultEngine = initialDefault();
+
+    /**
+     * @return true if this engine can be used in the running JVM
+     */
+    public boolean isAvailable() {
+        return this == SCALAR || VECTOR_AVAILABLE;
+    }
+
+    /**
+     * @return The engine used by grid enumerations that don't name one explicitly
+     */
+    public static GridEngine getDefault() {
+        return defaultEngine;
+    }
+
+    /**
+     * Changes the engine used by grid enumerations that don't name one explicitly
+     *
+     * @param engine The engine to use
+     * @throws IllegalStateException if the engine is not available in this JVM
+     */
+    public static void setDefault(GridEngine engine) {
+        if (!engine.isAvailable()) {
+            throw new IllegalStateException(engine + " grid engine is not available, start the JVM with --add-modules jdk.incubator.vector");
+        }
+        defaultEngine = engine;
+    }
+
+    private static GridEngine initialDefault() {
+        String configured = System.getProperty("rldpredictor.gridEngine");
+        if (configured != null) {
+            GridEngine engine = GridEngine.valueOf(configured.trim().toUpperCase());
+            return engine.isAvailable() ? engine : SCALAR;
+        }
+        return VECTOR_AVAILABLE ? VECTOR : SCALAR;
+    }
+
+    private static boolean detectVectorSupport() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            // A preferred species with a single lane gives no benefit over the scalar engine
+            return GridVectorKernel.LANES > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
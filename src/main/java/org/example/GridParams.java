@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grid parameters derived from a spawnFrequency config value, computed once and interned.
+ *
+ * Dungeon.canSpawnInChunk() splits the world into square grid cells of max chunks and
+ * places one spawn per cell at a random offset in [0, max - min) on each axis:
+ *
+ *   min = max(8 * spawnFrequency / 10, 2)
+ *   max = max(32 * spawnFrequency / 10, 8)
+ *
+ * Besides the cell geometry this holds everything the bounded nextInt(max - min) needs:
+ * the power-of-two flag, the rejection threshold and a multiply-shift reciprocal, so the
+ * draw is a multiply and a shift instead of an integer division.
+ */
+public final class GridParams {
+
+    // Frequencies 0..CACHED_FREQUENCIES-1 are interned in a plain array, others in a map
+    private static final int CACHED_FREQUENCIES = 256;
+    private static final GridParams[] CACHE = new GridParams[CACHED_FREQUENCIES];
+    private static final ConcurrentHashMap<Integer, GridParams> OTHERS =
+        new ConcurrentHashMap<Integer, GridParams>();
+
+    public final int spawnFrequency;
+    /** Grid cell size in chunks (max) */
+    public final int cellSize;
+    /** Smallest offset margin (min) */
+    public final int minOffset;
+    /** Exclusive bound of the in-cell chunk offset (max - min) */
+    public final int bound;
+    /** true if bound is a power of two, in which case nextInt() never rejects */
+    public final boolean powerOfTwo;
+    /** Draws r >= rejectionThreshold are rejected and redrawn by nextInt() */
+    public final long rejectionThreshold;
+
+    // floor(r / bound) == (r * magic) >>> shift for every 0 <= r < 2^31
+    final long magic;
+    final int shift;
+
+    private GridParams(int spawnFrequency) {
+        // Calculate grid parameters (from canSpawnInChunk)
+        int min = 8 * spawnFrequency / 10;
+        int max = 32 * spawnFrequency / 10;
+        min = min < 2 ? 2 : min;
+        max = max < 8 ? 8 : max;
+
+        this.spawnFrequency = spawnFrequency;
+        this.cellSize = max;
+        this.minOffset = min;
+        this.bound = max - min;
+        if (bound <= 0) {
+            throw new IllegalArgumentException("spawnFrequency " + spawnFrequency + " gives an empty offset range");
+        }
+
+        this.powerOfTwo = (bound & (bound - 1)) == 0;
+        this.rejectionThreshold = (1L << 31) / bound * bound;
+
+        // Round-up reciprocal (Granlund-Montgomery): with l = ceil(log2(bound)) and
+        // magic = ceil(2^(31 + l) / bound), the quotient is exact for all 31-bit r
+        int l = 32 - Integer.numberOfLeadingZeros(bound - 1);
+        this.shift = 31 + l;
+        this.magic = ((1L << shift) + bound - 1) / bound;
+    }
+
+    /**
+     * @param spawnFrequency The spawn frequency config value (default: 10)
+     * @return The shared parameters for this frequency
+     */
+    public static GridParams of(int spawnFrequency) {
+        if (spawnFrequency >= 0 && spawnFrequency < CACHED_FREQUENCIES) {
+            GridParams params = CACHE[spawnFrequency];
+            if (params == null) {
+                // Benign race: all fields are final, so a duplicate is harmless
+                params = new GridParams(spawnFrequency);
+                CACHE[spawnFrequency] = params;
+            }
+            return params;
+        }
+        return OTHERS.computeIfAbsent(spawnFrequency, GridParams::new);
+    }
+
+    /**
+     * Bounded draw equivalent to nextInt(bound) for a draw r = next(31) that was
+     * not rejected (r < rejectionThreshold).
+     */
+    public int reduce(int r) {
+        if (powerOfTwo) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        return r - (int) ((r * magic) >>> shift) * bound;
+    }
+
+    /**
+     * Grid cell index of a chunk coordinate, using the negative coordinate
+     * normalization from canSpawnInChunk().
+     */
+    public int gridIndex(int chunk) {
+        int temp = chunk < 0 ? chunk - (cellSize - 1) : chunk;
+        return temp / cellSize;
+    }
+
+    @Override
+    public String toString() {
+        return "GridParams(frequency=" + spawnFrequency + ", cellSize=" + cellSize + ", offsets=" + minOffset + ".." + cellSize + ")";
+    }
+}
@@ -0,0 +1,166 @@
+package org.example;
+
+/**
+ * Allocation-free reimplementation of the java.util.Random linear congruential generator.
+ *
+ * Every prediction step (grid cell offsets, dungeon offsets, tower types) seeds a fresh
+ * java.util.Random and draws one or two values from it. This class reproduces the 48-bit
+ * scramble, next(bits) and bounded nextInt() of java.util.Random bit for bit, but keeps the
+ * state in a plain long so that no object or AtomicLong is needed per grid cell.
+ *
+ * The static methods work directly on the 48-bit state for the hot grid loops; the instance
+ * methods mirror the java.util.Random API for the less regular call sites.
+ */
+public final class GridRandom {
+
+    static final long MULTIPLIER = 0x5DEECE66DL;
+    static final long ADDEND = 0xBL;
+    static final long MASK = (1L << 48) - 1;
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53; // 1.0 / (1L << 53)
+
+    private long state;
+
+    public GridRandom() {
+    }
+
+    public GridRandom(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Same as java.util.Random.setSeed(seed)
+     */
+    public void setSeed(long seed) {
+        this.state = scramble(seed);
+    }
+
+    /**
+     * Same as java.util.Random.next(bits)
+     */
+    public int next(int bits) {
+        state = advance(state);
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Same as java.util.Random.nextInt(bound), including the rejection loop for
+     * bounds that are not a power of two.
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        int r = next(31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next(31)) {
+            // Rejected: u fell into the incomplete last bucket
+        }
+        return r;
+    }
+
+    /**
+     * Same as java.util.Random.nextDouble()
+     */
+    public double nextDouble() {
+        return (((long) next(26) << 27) + next(27)) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Initial scramble applied by java.util.Random to a user supplied seed.
+     */
+    public static long scramble(long seed) {
+        return (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Advances the 48-bit LCG state by one step.
+     */
+    public static long advance(long state) {
+        return (state * MULTIPLIER + ADDEND) & MASK;
+    }
+
+    /**
+     * Seed of the grid cell random, matching Minecraft's world.setRandomSeed(a, b, c)
+     * with c = 10387312 as used by Dungeon.canSpawnInChunk()
+     */
+    public static long gridSeed(long worldSeed, int gridX, int gridZ) {
+        return (gridX * 341873128712L + gridZ * 132897987541L + worldSeed + 10387312) * 14357617;
+    }
+
+    /**
+     * Draws the two in-cell chunk offsets of a grid cell, equivalent to
+     *
+     *   Random rand = new Random(seed);
+     *   int x = rand.nextInt(bound);
+     *   int z = rand.nextInt(bound);
+     *
+     * @param seed The grid cell seed (see gridSeed)
+     * @param bound The exclusive offset bound (max - min)
+     * @return Both offsets packed as (x << 32) | (z & 0xFFFFFFFFL)
+     */
+    public static long cellOffsets(long seed, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        int m = bound - 1;
+        boolean powerOfTwo = (bound & m) == 0;
+
+        long s = advance(scramble(seed));
+        int r = (int) (s >>> 17);
+        int x;
+        if (powerOfTwo) {
+            x = (int) ((bound * (long) r) >> 31);
+        } else {
+            while (r - (x = r % bound) + m < 0) {
+                s = advance(s);
+                r = (int) (s >>> 17);
+            }
+        }
+
+        s = advance(s);
+        r = (int) (s >>> 17);
+        int z;
+        if (powerOfTwo) {
+            z = (int) ((bound * (long) r) >> 31);
+        } else {
+            while (r - (z = r % bound) + m < 0) {
+                s = advance(s);
+                r = (int) (s >>> 17);
+            }
+        }
+
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Same as cellOffsets(seed, params.bound), using the precomputed bound reduction
+     * of the grid parameters instead of an integer division per draw.
+     */
+    public static long cellOffsets(long seed, GridParams params) {
+        long threshold = params.rejectionThreshold;
+
+        long s = advance(scramble(seed));
+        int r = (int) (s >>> 17);
+        while (r >= threshold) {
+            s = advance(s);
+            r = (int) (s >>> 17);
+        }
+        int x = params.reduce(r);
+
+        s = advance(s);
+        r = (int) (s >>> 17);
+        while (r >= threshold) {
+            s = advance(s);
+            r = (int) (s >>> 17);
+        }
+        int z = params.reduce(r);
+
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,196 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.LongConsumer;
+
+/**
+ * Resumable streaming scan over an arbitrary rectangle of grid cells, up to the whole world border.
+ *
+ * Results are pushed block by block into a ChunkSink and never collected, so memory use is
+ * constant whatever the size of the rectangle (the vanilla border at default frequency is
+ * about 13.7 billion cells). Cells are visited in row-major order and progress is tracked as
+ * a single long cell index, which checkpoint() turns into a string that resume() accepts.
+ *
+ * Progress advances only after the sink has accepted a block. After a crash the resumed scan
+ * may therefore deliver the last, unacknowledged block again; it never skips one.
+ *
+ * A scan is not thread-safe. run() stops early, leaving a valid checkpoint, when the calling
+ * thread is interrupted.
+ */
+public final class GridScan {
+
+    // Cells evaluated and handed to the sink per block
+    private static final int BLOCK = 4096;
+
+    /**
+     * Receives blocks of packed spawn chunks (see DungeonSpawnPredictor.packChunk)
+     */
+    @FunctionalInterface
+    public interface ChunkSink {
+        /**
+         * @param packedChunks Buffer holding the block; only valid for the duration of the call
+         * @param count Number of values in the block, starting at index 0
+         */
+        void accept(long[] packedChunks, int count) throws IOException;
+
+        /**
+         * Sink calling a consumer for every packed chunk
+         */
+        static ChunkSink each(LongConsumer consumer) {
+            return (packedChunks, count) -> {
+                for (int i = 0; i < count; i++) {
+                    consumer.accept(packedChunks[i]);
+                }
+            };
+        }
+
+        /**
+         * Sink writing every packed chunk to a channel as a big-endian long
+         */
+        static ChunkSink toChannel(WritableByteChannel channel) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK * Long.BYTES);
+            return (packedChunks, count) -> {
+                buffer.clear();
+                buffer.asLongBuffer().put(packedChunks, 0, count);
+                buffer.limit(count * Long.BYTES);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            };
+        }
+    }
+
+    private final long worldSeed;
+    private final GridParams grid;
+    private final int minGridX;
+    private final int minGridZ;
+    private final int maxGridX;
+    private final int maxGridZ;
+    private final long columns;
+    private final long totalCells;
+
+    private long nextCell;
+
+    /**
+     * Scan over a rectangle of grid cells, bounds inclusive
+     */
+    public GridScan(long worldSeed, GridParams grid, int minGridX, int minGridZ, int maxGridX, int maxGridZ) {
+        this(worldSeed, grid, minGridX, minGridZ, maxGridX, maxGridZ, 0);
+    }
+
+    private GridScan(long worldSeed, GridParams grid, int minGridX, int minGridZ, int maxGridX, int maxGridZ,
+                     long nextCell) {
+        this.worldSeed = worldSeed;
+        this.grid = grid;
+        this.minGridX = minGridX;
+        this.minGridZ = minGridZ;
+        this.maxGridX = maxGridX;
+        this.maxGridZ = maxGridZ;
+        this.totalCells = DungeonSpawnPredictor.gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        this.columns = totalCells == 0 ? 1 : (long) maxGridZ - minGridZ + 1;
+
+        if (nextCell < 0 || nextCell > totalCells) {
+            throw new IllegalArgumentException("Cell index " + nextCell + " is outside the scan of " + totalCells + " cells");
+        }
+        this.nextCell = nextCell;
+    }
+
+    /**
+     * Scan over every grid cell whose chunk range intersects a square of blocks
+     * centered on the origin, like the vanilla world border (30,000,000).
+     */
+    public static GridScan worldBorder(long worldSeed, GridParams grid, int borderRadiusBlocks) {
+        return blockArea(worldSeed, grid, -borderRadiusBlocks, -borderRadiusBlocks,
+            borderRadiusBlocks - 1, borderRadiusBlocks - 1);
+    }
+
+    /**
+     * Scan over every grid cell whose chunk range intersects a rectangle of blocks, bounds inclusive
+     */
+    public static GridScan blockArea(long worldSeed, GridParams grid,
+                                     int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        return new GridScan(worldSeed, grid,
+            grid.gridIndex(minBlockX >> 4), grid.gridIndex(minBlockZ >> 4),
+            grid.gridIndex(maxBlockX >> 4), grid.gridIndex(maxBlockZ >> 4));
+    }
+
+    /**
+     * Restores a scan from a string produced by checkpoint()
+     */
+    public static GridScan resume(String checkpoint) {
+        String[] fields = checkpoint.trim().split(",");
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("Malformed scan checkpoint: " + checkpoint);
+        }
+        try {
+            return new GridScan(Long.parseLong(fields[0]), GridParams.of(Integer.parseInt(fields[1])),
+                Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                Long.parseLong(fields[6]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed scan checkpoint: " + checkpoint, e);
+        }
+    }
+
+    /**
+     * Serializes the scan and its progress as
+     * worldSeed,spawnFrequency,minGridX,minGridZ,maxGridX,maxGridZ,nextCell
+     */
+    public String checkpoint() {
+        return worldSeed + "," + grid.spawnFrequency + "," + minGridX + "," + minGridZ + ","
+            + maxGridX + "," + maxGridZ + "," + nextCell;
+    }
+
+    public long getTotalCells() {
+        return totalCells;
+    }
+
+    public long getCompletedCells() {
+        return nextCell;
+    }
+
+    public boolean isComplete() {
+        return nextCell >= totalCells;
+    }
+
+    /**
+     * Runs the scan to completion, or until the thread is interrupted.
+     *
+     * @return Number of cells delivered by this call
+     */
+    public long run(ChunkSink sink) throws IOException {
+        return run(sink, Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs at most maxCells more cells of the scan, or until the thread is interrupted.
+     * Useful to persist checkpoint() at a fixed interval.
+     *
+     * @return Number of cells delivered by this call
+     */
+    public long run(ChunkSink sink, long maxCells) throws IOException {
+        long stop = totalCells - nextCell <= maxCells ? totalCells : nextCell + maxCells;
+        long start = nextCell;
+        if (nextCell >= stop) {
+            return 0;
+        }
+
+        GridCursor cursor = new GridCursor(worldSeed, grid);
+        long[] block = new long[(int) Math.min(BLOCK, Math.min(columns, stop - nextCell))];
+
+        while (nextCell < stop && !Thread.currentThread().isInterrupted()) {
+            long row = nextCell / columns;
+            long column = nextCell % columns;
+            int count = (int) Math.min(block.length, Math.min(columns - column, stop - nextCell));
+
+            cursor.moveTo((int) (minGridX + row), (int) (minGridZ + column));
+            cursor.fillRow(count, block, 0);
+            sink.accept(block, count);
+            nextCell += count;
+        }
+
+        return nextCell - start;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Lazy spliterator over the packed spawn chunks of a rectangle of grid cells.
+ *
+ * Covers the cells with row-major indices [index, end) of the rectangle, so splitting is just
+ * halving the index range: both halves are exactly sized and differ by at most one cell.
+ * Nothing is evaluated until the cells are traversed, which lets short-circuiting stream
+ * operations (findFirst, limit, anyMatch) stop the grid evaluation early.
+ */
+final class GridSpliterator implements Spliterator.OfLong {
+
+    // Don't split below this many cells, the per-task overhead would dominate
+    private static final long MIN_SPLIT = 1024;
+    // Cells evaluated per GridCursor.fillRow() call in forEachRemaining()
+    private static final int BLOCK = 1024;
+
+    private final long worldSeed;
+    private final GridParams grid;
+    private final GridEngine engine;
+    private final int minGridX;
+    private final int minGridZ;
+    private final long columns;
+
+    private long index;
+    private final long end;
+
+    /**
+     * @param columns Width of the rectangle along Z, in grid cells
+     */
+    GridSpliterator(long worldSeed, GridParams grid, GridEngine engine,
+                    int minGridX, int minGridZ, long columns, long index, long end) {
+        this.worldSeed = worldSeed;
+        this.grid = grid;
+        this.engine = engine;
+        this.minGridX = minGridX;
+        this.minGridZ = minGridZ;
+        this.columns = columns;
+        this.index = index;
+        this.end = end;
+    }
+
+    /**
+     * Spliterator over every cell of a rectangle of grid cells
+     */
+    static GridSpliterator of(long worldSeed, GridParams grid,
+                              int minGridX, int minGridZ, int maxGridX, int maxGridZ) {
+        long cells = DungeonSpawnPredictor.gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        long columns = cells == 0 ? 1 : (long) maxGridZ - minGridZ + 1;
+        return new GridSpliterator(worldSeed, grid, GridEngine.getDefault(),
+            minGridX, minGridZ, columns, 0, cells);
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (index >= end) {
+            return false;
+        }
+
+        int gridX = (int) (minGridX + index / columns);
+        int gridZ = (int) (minGridZ + index % columns);
+        index++;
+
+        action.accept(DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        if (index >= end) {
+            return;
+        }
+
+        GridCursor cursor = new GridCursor(worldSeed, grid, engine);
+        long[] block = new long[(int) Math.min(BLOCK, Math.min(columns, end - index))];
+
+        while (index < end) {
+            long row = index / columns;
+            long column = index % columns;
+            cursor.moveTo((int) (minGridX + row), (int) (minGridZ + column));
+
+            // Stay within the current row; the cursor only walks along +Z
+            long rowRemaining = Math.min(columns - column, end - index);
+            while (rowRemaining > 0) {
+                int count = (int) Math.min(block.length, rowRemaining);
+                cursor.fillRow(count, block, 0);
+                index += count;
+                rowRemaining -= count;
+                for (int i = 0; i < count; i++) {
+                    action.accept(block[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        long remaining = end - index;
+        if (remaining < 2 * MIN_SPLIT) {
+            return null;
+        }
+
+        long middle = index + remaining / 2;
+        GridSpliterator prefix = new GridSpliterator(worldSeed, grid, engine,
+            minGridX, minGridZ, columns, index, middle);
+        this.index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        // Each grid cell holds exactly one spawn chunk, so the values are also DISTINCT
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT;
+    }
+}
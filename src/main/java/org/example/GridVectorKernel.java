@@ -0,0 +1,184 @@
+package org.example;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel evaluating several grid cells of one row per instruction.
+ *
+ * Each lane holds one grid cell. The seed derivation, scramble, both LCG steps and the bounded
+ * nextInt() are done lanewise on 64-bit lanes. The bounded draw uses the multiply-shift
+ * reciprocal from GridParams, which is exact for every 31-bit draw. Lanes whose draw falls into
+ * the rejection zone of nextInt() are rare and are recomputed with the scalar GridRandom path,
+ * so the output matches GridRandom.cellOffsets() exactly.
+ *
+ * Only loaded when the jdk.incubator.vector module is present (see GridEngine).
+ */
+final class GridVectorKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    static final int LANES = SPECIES.length();
+
+    private static final LongVector IOTA = LongVector.zero(SPECIES).addIndex(1);
+
+    private GridVectorKernel() {
+    }
+
+    /**
+     * Evaluates count cells along +Z, starting at the cell with the given seed and chunk origin.
+     * Results are written as packed chunk coordinates (see GridCursor.spawnChunk()).
+     */
+    static void fillRow(
+            long seed,
+            int chunkOriginX,
+            int chunkOriginZ,
+            GridParams params,
+            int count,
+            long[] out,
+            int offset) {
+
+        int cellSize = params.cellSize;
+        int bound = params.bound;
+        long threshold = params.rejectionThreshold;
+        long laneSeedStep = GridCursor.Z_STEP * LANES;
+        long laneChunkStep = (long) cellSize * LANES;
+
+        LongVector seeds = IOTA.mul(GridCursor.Z_STEP).add(seed);
+        LongVector originsZ = IOTA.mul(cellSize).add(chunkOriginZ);
+        long originX = (long) chunkOriginX << 32;
+
+        int i = 0;
+        for (; i + LANES <= count; i += LANES) {
+            LongVector s = seeds.lanewise(VectorOperators.XOR, GridRandom.MULTIPLIER).and(GridRandom.MASK);
+            s = s.mul(GridRandom.MULTIPLIER).add(GridRandom.ADDEND).and(GridRandom.MASK);
+            LongVector r1 = s.lanewise(VectorOperators.LSHR, 17);
+            s = s.mul(GridRandom.MULTIPLIER).add(GridRandom.ADDEND).and(GridRandom.MASK);
+            LongVector r2 = s.lanewise(VectorOperators.LSHR, 17);
+
+            LongVector x;
+            LongVector z;
+            VectorMask<Long> rejected;
+            if (params.powerOfTwo) {
+                x = r1.mul(bound).lanewise(VectorOperators.ASHR, 31);
+                z = r2.mul(bound).lanewise(VectorOperators.ASHR, 31);
+                rejected = SPECIES.maskAll(false);
+            } else {
+                x = r1.sub(floorMultiple(r1, params));
+                z = r2.sub(floorMultiple(r2, params));
+                rejected = r1.compare(VectorOperators.GE, threshold)
+                    .or(r2.compare(VectorOperators.GE, threshold));
+            }
+
+            // (originX + x) << 32 keeps the int overflow behaviour of the scalar path
+            LongVector packed = x.lanewise(VectorOperators.LSHL, 32).add(originX)
+                .or(originsZ.add(z).and(0xFFFFFFFFL));
+            packed.intoArray(out, offset + i);
+
+            if (rejected.anyTrue()) {
+                for (int lane = 0; lane < LANES; lane++) {
+                    if (rejected.laneIsSet(lane)) {
+                        out[offset + i + lane] = scalarCell(seed + (long) (i + lane) * GridCursor.Z_STEP,
+                            chunkOriginX, chunkOriginZ + (i + lane) * cellSize, params);
+                    }
+                }
+            }
+
+            seeds = seeds.add(laneSeedStep);
+            originsZ = originsZ.add(laneChunkStep);
+        }
+
+        // Tail cells that don't fill a whole vector
+        for (; i < count; i++) {
+            out[offset + i] = scalarCell(seed + (long) i * GridCursor.Z_STEP,
+                chunkOriginX, chunkOriginZ + i * cellSize, params);
+        }
+    }
+
+    /**
+     * Multi-frequency variant of fillRow() (see GridCursor.fillRow(GridParams[], ...)). The
+     * seed derivation and both LCG steps are done once per vector of cells, then the bounded
+     * draw and the cell origin of every frequency are applied to the same raw draws.
+     */
+    static void fillRow(
+            long seed,
+            int gridX,
+            int gridZ,
+            GridParams[] params,
+            int count,
+            long[][] out,
+            int offset) {
+
+        long laneSeedStep = GridCursor.Z_STEP * LANES;
+        LongVector seeds = IOTA.mul(GridCursor.Z_STEP).add(seed);
+        LongVector laneGridZ = IOTA.add(gridZ);
+
+        int i = 0;
+        for (; i + LANES <= count; i += LANES) {
+            LongVector s = seeds.lanewise(VectorOperators.XOR, GridRandom.MULTIPLIER).and(GridRandom.MASK);
+            s = s.mul(GridRandom.MULTIPLIER).add(GridRandom.ADDEND).and(GridRandom.MASK);
+            LongVector r1 = s.lanewise(VectorOperators.LSHR, 17);
+            s = s.mul(GridRandom.MULTIPLIER).add(GridRandom.ADDEND).and(GridRandom.MASK);
+            LongVector r2 = s.lanewise(VectorOperators.LSHR, 17);
+
+            for (int f = 0; f < params.length; f++) {
+                GridParams p = params[f];
+                LongVector x;
+                LongVector z;
+                VectorMask<Long> rejected;
+                if (p.powerOfTwo) {
+                    x = r1.mul(p.bound).lanewise(VectorOperators.ASHR, 31);
+                    z = r2.mul(p.bound).lanewise(VectorOperators.ASHR, 31);
+                    rejected = SPECIES.maskAll(false);
+                } else {
+                    x = r1.sub(floorMultiple(r1, p));
+                    z = r2.sub(floorMultiple(r2, p));
+                    rejected = r1.compare(VectorOperators.GE, p.rejectionThreshold)
+                        .or(r2.compare(VectorOperators.GE, p.rejectionThreshold));
+                }
+
+                long originX = (long) (gridX * p.cellSize) << 32;
+                LongVector originsZ = laneGridZ.add(i).mul(p.cellSize);
+                LongVector packed = x.lanewise(VectorOperators.LSHL, 32).add(originX)
+                    .or(originsZ.add(z).and(0xFFFFFFFFL));
+                packed.intoArray(out[f], offset + i);
+
+                if (rejected.anyTrue()) {
+                    for (int lane = 0; lane < LANES; lane++) {
+                        if (rejected.laneIsSet(lane)) {
+                            out[f][offset + i + lane] = scalarCell(seed + (long) (i + lane) * GridCursor.Z_STEP,
+                                gridX * p.cellSize, (gridZ + i + lane) * p.cellSize, p);
+                        }
+                    }
+                }
+            }
+
+            seeds = seeds.add(laneSeedStep);
+        }
+
+        // Tail cells that don't fill a whole vector
+        for (; i < count; i++) {
+            long cellSeed = seed + (long) i * GridCursor.Z_STEP;
+            for (int f = 0; f < params.length; f++) {
+                GridParams p = params[f];
+                out[f][offset + i] = scalarCell(cellSeed, gridX * p.cellSize, (gridZ + i) * p.cellSize, p);
+            }
+        }
+    }
+
+    /**
+     * Lanewise bound * floor(r / bound) for 0 <= r < 2^31
+     */
+    private static LongVector floorMultiple(LongVector r, GridParams params) {
+        return r.mul(params.magic).lanewise(VectorOperators.LSHR, params.shift).mul(params.bound);
+    }
+
+    private static long scalarCell(long seed, int chunkOriginX, int chunkOriginZ, GridParams params) {
+        long offsets = GridRandom.cellOffsets(seed, params);
+        int chunkX = chunkOriginX + (int) (offsets >> 32);
+        int chunkZ = chunkOriginZ + (int) offsets;
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,230 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash set of primitive longs, e.g. packed chunk coordinates (see
+ * DungeonSpawnPredictor.packChunk) straight from the packed prediction methods.
+ *
+ * Keys are hashed with the MurmurHash3 64-bit finalizer, so the regular spawn lattice, whose
+ * coordinates differ by multiples of the grid cell size, spreads evenly over the table. Slots
+ * are probed linearly and the table is kept at most half full; removal shifts later entries of
+ * the probe run back instead of leaving tombstones. Keys are stored unboxed, so membership
+ * checks cost no objects. Key 0 is kept outside the table, since 0 marks a free slot.
+ *
+ * Not thread-safe.
+ */
+public final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize Number of keys the set holds without growing
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * Set of the values keys[offset] .. keys[offset + count - 1]
+     */
+    public LongHashSet(long[] keys, int offset, int count) {
+        this(count);
+        for (int i = 0; i < count; i++) {
+            add(keys[offset + i]);
+        }
+    }
+
+    /**
+     * @return true if the key was not in the set yet
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        if (++size > (mask + 1) >> 1) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the key was in the set
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every key, keeping the table
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Visits every key, in no particular order
+     */
+    public void forEach(LongConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * The keys in no particular order
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int n = 0;
+        if (containsZero) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3: every input bit affects every output bit
+     */
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Power-of-two table size keeping expectedSize keys at most half full
+     */
+    static int tableSize(int expectedSize) {
+        long wanted = Math.max(MIN_CAPACITY, 2L * expectedSize);
+        if (wanted > 1 << 30) {
+            throw new IllegalArgumentException("Too many keys: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private int slot(long key) {
+        return (int) mix(key) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        if (keys.length == 1 << 30) {
+            throw new IllegalStateException("Set is full");
+        }
+        long[] old = keys;
+        allocate(keys.length << 1);
+        for (long key : old) {
+            if (key != 0) {
+                int i = slot(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+            }
+        }
+    }
+
+    /**
+     * Frees slot i, moving later entries of its probe run into the gap where needed
+     */
+    private void shiftBack(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = slot(keys[j]);
+            // Move keys[j] into the gap unless its home lies cyclically in (i, j]
+            boolean homeInRange = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!homeInRange) {
+                keys[i] = keys[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+    }
+}
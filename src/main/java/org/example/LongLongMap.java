@@ -0,0 +1,224 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive long values, e.g. packed
+ * spawn chunk to packed dungeon entrance block.
+ *
+ * Same table layout as LongHashSet: MurmurHash3-finalized keys, linear probing at most half
+ * full, backward-shift removal, and key 0 kept outside the table. No key or value is boxed.
+ *
+ * Not thread-safe.
+ */
+public final class LongLongMap {
+
+    /**
+     * Receives the entries of forEach()
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        void accept(long key, long value);
+    }
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+    private long zeroValue;
+
+    public LongLongMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize Number of entries the map holds without growing
+     */
+    public LongLongMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(LongHashSet.tableSize(expectedSize));
+    }
+
+    /**
+     * Map of keys[offset + i] to values[offset + i] for i in [0, count); later duplicates win
+     */
+    public LongLongMap(long[] keys, long[] values, int offset, int count) {
+        this(count);
+        for (int i = 0; i < count; i++) {
+            put(keys[offset + i], values[offset + i]);
+        }
+    }
+
+    /**
+     * @return The previous value of the key, or defaultValue if it had none
+     */
+    public long put(long key, long value, long defaultValue) {
+        if (key == 0) {
+            long previous = containsZero ? zeroValue : defaultValue;
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                long previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) >> 1) {
+            grow();
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Maps key to value
+     */
+    public void put(long key, long value) {
+        put(key, value, 0);
+    }
+
+    /**
+     * @return The value of the key, or defaultValue if it has none
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return containsZero ? zeroValue : defaultValue;
+        }
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the key was in the map
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        for (int i = slot(key); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry, keeping the table
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Visits every entry, in no particular order
+     */
+    public void forEach(EntryVisitor visitor) {
+        if (containsZero) {
+            visitor.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                visitor.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        return (int) LongHashSet.mix(key) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        if (keys.length == 1 << 30) {
+            throw new IllegalStateException("Map is full");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j]);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Frees slot i, moving later entries of its probe run into the gap where needed
+     */
+    private void shiftBack(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = slot(keys[j]);
+            // Move entry j into the gap unless its home lies cyclically in (i, j]
+            boolean homeInRange = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+            if (!homeInRange) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+    }
+}
@@ -0,0 +1,168 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Answers the nearest-dungeon query for many positions at once, e.g. every online player
+ * once per server tick.
+ *
+ * Positions are processed grouped by grid cell, so players standing close together walk
+ * the same rings one after another. Every evaluated cell goes into a direct-mapped memo
+ * that is kept across calls (spawns never change for a given seed), so cells shared by
+ * several players, or by the same player on consecutive ticks, are evaluated only once.
+ *
+ * Results are written to caller-supplied primitive arrays. After the internal buffers have
+ * grown to the largest batch seen, findNearest() allocates nothing. Not thread-safe; use one
+ * instance per thread.
+ */
+public final class NearestDungeonBatch {
+
+    /**
+     * Default number of memo slots (about 100 KB)
+     */
+    public static final int DEFAULT_MEMO_CAPACITY = 4096;
+
+    // Bits of the sort key holding the position index, the rest hold the cell
+    private static final int INDEX_BITS = 20;
+    private static final int CELL_BITS = (64 - INDEX_BITS) / 2;
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+
+    // Integer.MIN_VALUE is never a grid index (cells are at least 8 chunks wide)
+    private static final long EMPTY = (long) Integer.MIN_VALUE << 32;
+
+    private final long worldSeed;
+    private final GridParams grid;
+
+    private final long[] memoCells;
+    private final long[] memoChunks;
+    private final long[] memoBlocks;
+    private final int memoShift;
+
+    private final SpawnSearch.CellSource memo = this::memoBlock;
+    private final SpawnHeap heap = new SpawnHeap(1);
+    private final long[] nearest = new long[1];
+    private long[] order = new long[0];
+
+    // Results of the DungeonSpawnBatch variant of findNearest() in position order
+    private long[] resultChunks = new long[0];
+    private long[] resultBlocks = new long[0];
+
+    public NearestDungeonBatch(long worldSeed, int spawnFrequency) {
+        this(worldSeed, GridParams.of(spawnFrequency), DEFAULT_MEMO_CAPACITY);
+    }
+
+    /**
+     * @param memoCapacity Number of memo slots, rounded up to a power of two
+     */
+    public NearestDungeonBatch(long worldSeed, GridParams grid, int memoCapacity) {
+        if (memoCapacity < 1 || memoCapacity > 1 << 30) {
+            throw new IllegalArgumentException("memoCapacity must be between 1 and 2^30");
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(memoCapacity - 1);
+        this.worldSeed = worldSeed;
+        this.grid = grid;
+        this.memoCells = new long[1 << bits];
+        this.memoChunks = new long[1 << bits];
+        this.memoBlocks = new long[1 << bits];
+        this.memoShift = 64 - bits;
+        Arrays.fill(memoCells, EMPTY);
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public GridParams getGrid() {
+        return grid;
+    }
+
+    /**
+     * Finds the nearest dungeon of every position, same answer as
+     * DungeonSpawnPredictor.findNearestDungeon() without a search limit.
+     *
+     * @param positionX Block X coordinates
+     * @param positionZ Block Z coordinates
+     * @param count Number of positions, at most 2^20
+     * @param outChunks outChunks[i] receives the packed spawn chunk nearest to position i
+     *                  (see DungeonSpawnPredictor.packChunk), or null
+     * @param outBlocks outBlocks[i] receives the dungeon block position packed the same way, or null
+     */
+    public void findNearest(int[] positionX, int[] positionZ, int count, long[] outChunks, long[] outBlocks) {
+        if (count > 1 << INDEX_BITS) {
+            throw new IllegalArgumentException("At most " + (1 << INDEX_BITS) + " positions per batch");
+        }
+        if (order.length < count) {
+            order = new long[count];
+        }
+
+        // Sort by grid cell with the position index in the low bits
+        for (int i = 0; i < count; i++) {
+            long gridX = grid.gridIndex(positionX[i] >> 4) & CELL_MASK;
+            long gridZ = grid.gridIndex(positionZ[i] >> 4) & CELL_MASK;
+            order[i] = (((gridX << CELL_BITS) | gridZ) << INDEX_BITS) | i;
+        }
+        Arrays.sort(order, 0, count);
+
+        for (int n = 0; n < count; n++) {
+            int i = (int) (order[n] & ((1 << INDEX_BITS) - 1));
+            heap.clear();
+            SpawnSearch.nearestCells(memo, grid, positionX[i], positionZ[i], Integer.MAX_VALUE - 1, heap);
+            heap.drainSorted(nearest, null);
+
+            int slot = lookup(nearest[0]);
+            if (outChunks != null) {
+                outChunks[i] = memoChunks[slot];
+            }
+            if (outBlocks != null) {
+                outBlocks[i] = memoBlocks[slot];
+            }
+        }
+    }
+
+    /**
+     * Variant of findNearest() filling a DungeonSpawnBatch, with the tower types
+     *
+     * @param out Cleared, then receives the nearest dungeon of every position, in position order
+     */
+    public void findNearest(int[] positionX, int[] positionZ, int count, DungeonSpawnBatch out) {
+        if (resultChunks.length < count) {
+            resultChunks = new long[count];
+            resultBlocks = new long[count];
+        }
+        findNearest(positionX, positionZ, count, resultChunks, resultBlocks);
+
+        out.clear();
+        out.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            int blockX = (int) (resultBlocks[i] >> 32);
+            int blockZ = (int) resultBlocks[i];
+            out.add(DungeonSpawnPredictor.unpackChunkX(resultChunks[i]), DungeonSpawnPredictor.unpackChunkZ(resultChunks[i]),
+                blockX, blockZ, TowerType.predictOrdinal(worldSeed, blockX, blockZ));
+        }
+    }
+
+    /**
+     * Drops every memoized cell
+     */
+    public void clear() {
+        Arrays.fill(memoCells, EMPTY);
+    }
+
+    private long memoBlock(int gridX, int gridZ) {
+        return memoBlocks[lookup(((long) gridX << 32) | (gridZ & 0xFFFFFFFFL))];
+    }
+
+    /**
+     * Memo slot holding a cell, evaluating the cell if it isn't there
+     */
+    private int lookup(long cell) {
+        int slot = (int) ((cell * 0x9E3779B97F4A7C15L) >>> memoShift);
+        if (memoCells[slot] != cell) {
+            long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, (int) (cell >> 32), (int) cell);
+            memoCells[slot] = cell;
+            memoChunks[slot] = chunk;
+            memoBlocks[slot] = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+        }
+        return slot;
+    }
+}
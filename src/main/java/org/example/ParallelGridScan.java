@@ -0,0 +1,138 @@
+package org.example;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deterministic parallel evaluation of a rectangle of grid cells on a ForkJoinPool.
+ *
+ * The rectangle is cut into horizontal tiles of whole rows, a few tiles per worker. One lane
+ * task per worker is forked by recursive halving, and every lane claims tiles one at a time from
+ * a shared counter until none are left, so lanes that fall behind simply claim fewer tiles and no
+ * more than parallelism tiles are ever evaluated at once. Every tile writes its cells to their
+ * fixed row-major index in the output, so the result is identical to the sequential scan
+ * regardless of scheduling.
+ */
+final class ParallelGridScan {
+
+    // Tiles per lane the rows are cut into at most; more tiles balance better, fewer cost less
+    private static final int TILES_PER_WORKER = 4;
+
+    /**
+     * Evaluates the rows [firstRow, lastRow) of a tile
+     */
+    interface TileWorker {
+        void run(long firstRow, long lastRow);
+    }
+
+    private ParallelGridScan() {
+    }
+
+    /**
+     * Fills out[offset..] with the packed spawn chunks of the rectangle in row-major order.
+     *
+     * @param pool The pool that runs the tiles
+     * @param parallelism Maximum number of tiles evaluated at once
+     */
+    static void fill(
+            long worldSeed,
+            GridParams grid,
+            int minGridX,
+            int minGridZ,
+            int maxGridX,
+            int maxGridZ,
+            long[] out,
+            int offset,
+            ForkJoinPool pool,
+            int parallelism) {
+
+        int columns = maxGridZ - minGridZ + 1;
+        GridEngine engine = GridEngine.getDefault();
+
+        forEachTile((long) maxGridX - minGridX + 1, pool, parallelism, (firstRow, lastRow) -> {
+            GridCursor cursor = new GridCursor(worldSeed, grid, engine);
+            int index = (int) (offset + firstRow * columns);
+            for (long row = firstRow; row < lastRow; row++) {
+                cursor.moveTo((int) (minGridX + row), minGridZ);
+                cursor.fillRow(columns, out, index);
+                index += columns;
+            }
+        });
+    }
+
+    /**
+     * Runs worker over rows [0, rows) on the pool, returning once every row is done. The rows are
+     * cut into at most lanes * TILES_PER_WORKER tiles, where lanes is the smaller of parallelism
+     * and the pool's parallelism, and each lane evaluates its tiles one after another.
+     */
+    static void forEachTile(long rows, ForkJoinPool pool, int parallelism, TileWorker worker) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (rows <= 0) {
+            return;
+        }
+
+        int lanes = Math.min(parallelism, pool.getParallelism());
+        long tiles = Math.min(rows, (long) lanes * TILES_PER_WORKER);
+        lanes = (int) Math.min(lanes, tiles);
+        pool.invoke(new LaneTask(new TileQueue(worker, rows, tiles), 0, lanes));
+    }
+
+    /**
+     * The tiles of a scan, handed out in order to whichever lane asks next
+     */
+    private static final class TileQueue {
+        private final TileWorker worker;
+        private final long rows;
+        private final long tiles;
+        private final AtomicLong next = new AtomicLong();
+
+        TileQueue(TileWorker worker, long rows, long tiles) {
+            this.worker = worker;
+            this.rows = rows;
+            this.tiles = tiles;
+        }
+
+        /**
+         * Evaluates tiles until every tile has been claimed
+         */
+        void drain() {
+            for (long tile = next.getAndIncrement(); tile < tiles; tile = next.getAndIncrement()) {
+                // No overflow: rows < 2^33 and tiles is at most a pool's parallelism (< 2^15) * TILES_PER_WORKER
+                worker.run(rows * tile / tiles, rows * (tile + 1) / tiles);
+            }
+        }
+    }
+
+    /**
+     * The lanes [firstLane, lastLane), halved until a single lane drains the queue
+     */
+    private static final class LaneTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient TileQueue queue;
+        private final int firstLane;
+        private final int lastLane;
+
+        LaneTask(TileQueue queue, int firstLane, int lastLane) {
+            this.queue = queue;
+            this.firstLane = firstLane;
+            this.lastLane = lastLane;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastLane - firstLane == 1) {
+                queue.drain();
+                return;
+            }
+            int middle = (firstLane + lastLane) >>> 1;
+            ForkJoinTask.invokeAll(
+                new LaneTask(queue, firstLane, middle),
+                new LaneTask(queue, middle, lastLane));
+        }
+    }
+}
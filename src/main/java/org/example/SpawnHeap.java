@@ -0,0 +1,126 @@
+package org.example;
+
+/**
+ * Bounded max-heap of grid cells keyed by squared distance, on primitive arrays.
+ *
+ * Holds the k best (closest) cells seen so far; the root is the worst of them, so a new
+ * candidate only has to beat the root. Ties on distance are broken by the lower (gridX, gridZ),
+ * matching the row-major order of the grid scans. Reusable through clear().
+ */
+final class SpawnHeap {
+
+    private final double[] distances;
+    private final long[] cells;
+    private int size;
+
+    SpawnHeap(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.distances = new double[capacity];
+        this.cells = new long[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == cells.length;
+    }
+
+    /**
+     * Squared distance a candidate has to reach (or beat) to enter a full heap
+     */
+    double worstDistance() {
+        return size == cells.length ? distances[0] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Offers a cell packed as (gridX << 32) | (gridZ & 0xFFFFFFFFL)
+     *
+     * @return true if the cell was kept
+     */
+    boolean offer(double distance, long cell) {
+        if (size < cells.length) {
+            int i = size++;
+            // Sift up
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(distance, cell, distances[parent], cells[parent])) {
+                    break;
+                }
+                distances[i] = distances[parent];
+                cells[i] = cells[parent];
+                i = parent;
+            }
+            distances[i] = distance;
+            cells[i] = cell;
+            return true;
+        }
+
+        if (!worse(distances[0], cells[0], distance, cell)) {
+            return false;
+        }
+        siftDown(0, size, distance, cell);
+        return true;
+    }
+
+    /**
+     * Empties the heap into cells ordered from nearest to farthest.
+     *
+     * @return Number of cells written
+     */
+    int drainSorted(long[] outCells, double[] outDistances) {
+        int count = size;
+        // Repeatedly move the worst entry to the end of the live range (in-place heapsort)
+        for (int end = size - 1; end > 0; end--) {
+            double distance = distances[end];
+            long cell = cells[end];
+            distances[end] = distances[0];
+            cells[end] = cells[0];
+            siftDown(0, end, distance, cell);
+        }
+        System.arraycopy(cells, 0, outCells, 0, count);
+        if (outDistances != null) {
+            System.arraycopy(distances, 0, outDistances, 0, count);
+        }
+        size = 0;
+        return count;
+    }
+
+    private void siftDown(int i, int limit, double distance, long cell) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= limit) {
+                break;
+            }
+            if (child + 1 < limit && worse(distances[child + 1], cells[child + 1], distances[child], cells[child])) {
+                child++;
+            }
+            if (!worse(distances[child], cells[child], distance, cell)) {
+                break;
+            }
+            distances[i] = distances[child];
+            cells[i] = cells[child];
+            i = child;
+        }
+        distances[i] = distance;
+        cells[i] = cell;
+    }
+
+    /**
+     * true if (d1, c1) ranks after (d2, c2)
+     */
+    private static boolean worse(double d1, long c1, double d2, long c2) {
+        if (d1 != d2) {
+            return d1 > d2;
+        }
+        // Flipping the sign bit of the low word makes the signed long order (gridX, gridZ) order
+        return (c1 ^ 0x80000000L) > (c2 ^ 0x80000000L);
+    }
+}
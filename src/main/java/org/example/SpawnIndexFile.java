@@ -0,0 +1,502 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+
+/**
+ * Persistent, memory-mapped index of the resolved dungeon spawns of a rectangle of grid cells.
+ *
+ * Entries are sorted along a Morton (Z-order) curve over the grid cells, so cells that are
+ * close in the world are close in the file and a box query reads a few contiguous ranges.
+ * open() maps the file and is ready immediately; nothing is computed or parsed at startup.
+ *
+ * Layout (little-endian):
+ * <pre>
+ *   header, 64 bytes:
+ *     int magic 'RLDI', int version,
+ *     long worldSeed, int spawnFrequency, int reserved,
+ *     int minGridX, int minGridZ, int maxGridX, int maxGridZ,
+ *     long entryCount, long sparseIndexOffset
+ *   entries, 32 bytes each, in Morton order:
+ *     long mortonKey, int chunkX, int chunkZ, int blockX, int blockZ, byte towerType, 7 bytes padding
+ *   sparse index:
+ *     long mortonKey of every SPARSE_INTERVAL-th entry
+ * </pre>
+ * The Morton key interleaves the bits of (gridX - minGridX) and (gridZ - minGridZ).
+ *
+ * Queries that reach past the rectangle of the file evaluate the missing cells directly, so
+ * answers are always the same as those of DungeonSpawnPredictor. A reader is thread-safe
+ * until close().
+ */
+public final class SpawnIndexFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x524C4449; // "RLDI"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 64;
+    private static final int ENTRY_BYTES = 32;
+    private static final byte[] PADDING = new byte[7];
+
+    /**
+     * Entries per sparse index key
+     */
+    private static final int SPARSE_INTERVAL = 4096;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment file;
+
+    private final long worldSeed;
+    private final GridParams grid;
+    private final int minGridX;
+    private final int minGridZ;
+    private final int maxGridX;
+    private final int maxGridZ;
+    private final long entryCount;
+    private final long sparseIndexOffset;
+    private final long sparseCount;
+
+    private SpawnIndexFile(Arena arena, MemorySegment file) throws IOException {
+        this.arena = arena;
+        this.file = file;
+
+        if (file.byteSize() < HEADER_BYTES || file.get(INT, 0) != MAGIC) {
+            throw new IOException("Not a spawn index file");
+        }
+        if (file.get(INT, 4) != VERSION) {
+            throw new IOException("Unsupported spawn index version " + file.get(INT, 4));
+        }
+        this.worldSeed = file.get(LONG, 8);
+        this.grid = GridParams.of(file.get(INT, 16));
+        this.minGridX = file.get(INT, 24);
+        this.minGridZ = file.get(INT, 28);
+        this.maxGridX = file.get(INT, 32);
+        this.maxGridZ = file.get(INT, 36);
+        this.entryCount = file.get(LONG, 40);
+        this.sparseIndexOffset = file.get(LONG, 48);
+        this.sparseCount = (entryCount + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL;
+
+        if (entryCount != DungeonSpawnPredictor.gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ)
+                || sparseIndexOffset != HEADER_BYTES + entryCount * ENTRY_BYTES
+                || file.byteSize() < sparseIndexOffset + sparseCount * Long.BYTES) {
+            throw new IOException("Truncated or corrupt spawn index file");
+        }
+    }
+
+    /**
+     * Writes the index of a rectangle of grid cells, bounds inclusive. Cells are generated in
+     * Morton order and streamed to the file, so memory use stays small for any rectangle.
+     */
+    public static void write(Path path, long worldSeed, GridParams grid,
+                             int minGridX, int minGridZ, int maxGridX, int maxGridZ) throws IOException {
+        long entryCount = DungeonSpawnPredictor.gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        long sparseIndexOffset = HEADER_BYTES + entryCount * ENTRY_BYTES;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION)
+                .putLong(worldSeed).putInt(grid.spawnFrequency).putInt(0)
+                .putInt(minGridX).putInt(minGridZ).putInt(maxGridX).putInt(maxGridZ)
+                .putLong(entryCount).putLong(sparseIndexOffset);
+            header.clear();
+            writeFully(channel, header);
+
+            if (entryCount > 0) {
+                Writer writer = new Writer(channel, worldSeed, grid, minGridX, minGridZ, entryCount);
+                long width = (long) maxGridX - minGridX + 1;
+                long height = (long) maxGridZ - minGridZ + 1;
+                int level = 64 - Long.numberOfLeadingZeros(Math.max(width, height) - 1);
+                writer.quadrant(0, 0, level, width, height);
+                writer.finish();
+            }
+        }
+    }
+
+    /**
+     * Maps an index file. The mapping stays valid until close().
+     */
+    public static SpawnIndexFile open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return new SpawnIndexFile(arena, file);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public GridParams getGrid() {
+        return grid;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Whether the file holds a grid cell
+     */
+    public boolean covers(int gridX, int gridZ) {
+        return gridX >= minGridX && gridX <= maxGridX && gridZ >= minGridZ && gridZ <= maxGridZ;
+    }
+
+    /**
+     * Every dungeon whose entrance lies inside a rectangle of blocks, like
+     * DungeonSpawnPredictor.predictDungeonsInBox(). Cells stored in the file come in Morton
+     * order, followed by any cells outside the file.
+     */
+    public List<DungeonSpawn> predictDungeonsInBox(int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        List<DungeonSpawn> spawns = new ArrayList<>();
+        if (minBlockX > maxBlockX || minBlockZ > maxBlockZ) {
+            return spawns;
+        }
+        SpawnSearch.SpawnSource direct = SpawnSearch.direct(worldSeed, grid);
+
+        int queryMinGridX = SpawnSearch.firstCellReaching(grid, minBlockX);
+        int queryMinGridZ = SpawnSearch.firstCellReaching(grid, minBlockZ);
+        int queryMaxGridX = SpawnSearch.lastCellReaching(grid, maxBlockX);
+        int queryMaxGridZ = SpawnSearch.lastCellReaching(grid, maxBlockZ);
+
+        // Part of the query inside the file: walk the Morton ranges, skipping out of the box with BIGMIN
+        int fromX = Math.max(queryMinGridX, minGridX);
+        int fromZ = Math.max(queryMinGridZ, minGridZ);
+        int toX = Math.min(queryMaxGridX, maxGridX);
+        int toZ = Math.min(queryMaxGridZ, maxGridZ);
+        boolean inFile = fromX <= toX && fromZ <= toZ;
+        if (inFile) {
+            long lowKey = morton((long) fromX - minGridX, (long) fromZ - minGridZ);
+            long highKey = morton((long) toX - minGridX, (long) toZ - minGridZ);
+
+            long entry = lowerBound(lowKey);
+            while (entry < entryCount) {
+                long key = keyAt(entry);
+                if (Long.compareUnsigned(key, highKey) > 0) {
+                    break;
+                }
+                int gridX = (int) (minGridX + unmorton(key >>> 1));
+                int gridZ = (int) (minGridZ + unmorton(key));
+                if (gridX >= fromX && gridX <= toX && gridZ >= fromZ && gridZ <= toZ) {
+                    int blockX = intAt(entry, 16);
+                    int blockZ = intAt(entry, 20);
+                    if (blockX >= minBlockX && blockX <= maxBlockX && blockZ >= minBlockZ && blockZ <= maxBlockZ) {
+                        spawns.add(spawnAt(entry));
+                    }
+                    entry++;
+                } else {
+                    entry = seek(entry, bigMin(key, lowKey, highKey));
+                }
+            }
+        }
+
+        // Part of the query outside the file
+        for (int gridX = queryMinGridX; gridX <= queryMaxGridX; gridX++) {
+            for (int gridZ = queryMinGridZ; gridZ <= queryMaxGridZ; gridZ++) {
+                if (inFile && gridX >= fromX && gridX <= toX && gridZ == fromZ) {
+                    // Skip the columns stored in the file
+                    gridZ = toZ;
+                    continue;
+                }
+                long block = direct.spawnBlock(gridX, gridZ);
+                int blockX = (int) (block >> 32);
+                int blockZ = (int) block;
+                if (blockX >= minBlockX && blockX <= maxBlockX && blockZ >= minBlockZ && blockZ <= maxBlockZ) {
+                    spawns.add(DungeonSpawnPredictor.resolveCell(direct, gridX, gridZ));
+                }
+            }
+        }
+        return spawns;
+    }
+
+    /**
+     * The dungeon nearest to a block, like DungeonSpawnPredictor.findNearestDungeon()
+     */
+    public DungeonSpawn findNearestDungeon(int x, int z) {
+        SpawnSearch.SpawnSource direct = SpawnSearch.direct(worldSeed, grid);
+        SpawnSearch.CellSource source = (gridX, gridZ) -> {
+            if (!covers(gridX, gridZ)) {
+                return direct.spawnBlock(gridX, gridZ);
+            }
+            long entry = find(gridX, gridZ);
+            return ((long) intAt(entry, 16) << 32) | (intAt(entry, 20) & 0xFFFFFFFFL);
+        };
+
+        long cell = SpawnSearch.nearestCell(source, grid, x, z, Integer.MAX_VALUE - 1);
+        int gridX = (int) (cell >> 32);
+        int gridZ = (int) cell;
+        if (covers(gridX, gridZ)) {
+            return spawnAt(find(gridX, gridZ));
+        }
+        return DungeonSpawnPredictor.resolveCell(direct, gridX, gridZ);
+    }
+
+    /**
+     * Unmaps the file
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private DungeonSpawn spawnAt(long entry) {
+        return new DungeonSpawn(new ChunkCoord(intAt(entry, 8), intAt(entry, 12)),
+            intAt(entry, 16), intAt(entry, 20),
+            TowerType.byOrdinal(file.get(ValueLayout.JAVA_BYTE, HEADER_BYTES + entry * ENTRY_BYTES + 24)));
+    }
+
+    private long keyAt(long entry) {
+        return file.get(LONG, HEADER_BYTES + entry * ENTRY_BYTES);
+    }
+
+    private int intAt(long entry, int field) {
+        return file.get(INT, HEADER_BYTES + entry * ENTRY_BYTES + field);
+    }
+
+    /**
+     * Entry of a cell covered by the file
+     */
+    private long find(int gridX, int gridZ) {
+        return lowerBound(morton((long) gridX - minGridX, (long) gridZ - minGridZ));
+    }
+
+    /**
+     * First entry whose key is at least key (unsigned), or entryCount
+     */
+    private long lowerBound(long key) {
+        // Last sparse block starting at or below the key
+        long low = 0;
+        long high = sparseCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(file.get(LONG, sparseIndexOffset + middle * Long.BYTES), key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        // Then within that block
+        long first = Math.max(low - 1, 0) * SPARSE_INTERVAL;
+        long last = Math.min(first + SPARSE_INTERVAL, entryCount);
+        while (first < last) {
+            long middle = (first + last) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                first = middle + 1;
+            } else {
+                last = middle;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * First entry at or after from whose key is at least key (unsigned), or entryCount.
+     * Gallops forward, since the next box range usually starts close by.
+     */
+    private long seek(long from, long key) {
+        long step = 1;
+        long low = from;
+        while (from + step < entryCount && Long.compareUnsigned(keyAt(from + step), key) < 0) {
+            low = from + step + 1;
+            step <<= 1;
+        }
+        long high = Math.min(from + step, entryCount);
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Interleaves two 32-bit offsets, x in the odd bits and z in the even bits
+     */
+    static long morton(long x, long z) {
+        return (spread(x) << 1) | spread(z);
+    }
+
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * Inverse of spread() on the even bits
+     */
+    private static long unmorton(long v) {
+        v &= 0x5555555555555555L;
+        v = (v | (v >>> 1)) & 0x3333333333333333L;
+        v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return v;
+    }
+
+    /**
+     * Smallest Morton key above key that lies inside the box spanned by minKey and maxKey
+     * (Tropf and Herzog's BIGMIN), for a key between them that lies outside the box
+     */
+    static long bigMin(long key, long minKey, long maxKey) {
+        long bigMin = maxKey;
+        // Bits where the three keys agree change nothing, so start below them
+        int top = 63 - Long.numberOfLeadingZeros((key ^ minKey) | (key ^ maxKey));
+        for (int bit = top; bit >= 0; bit--) {
+            long mask = 1L << bit;
+            int pattern = ((key & mask) != 0 ? 4 : 0) | ((minKey & mask) != 0 ? 2 : 0) | ((maxKey & mask) != 0 ? 1 : 0);
+            switch (pattern) {
+                case 1: // key 0, min 0, max 1
+                    bigMin = load(minKey, bit, true);
+                    maxKey = load(maxKey, bit, false);
+                    break;
+                case 3: // key 0, min 1, max 1
+                    return minKey;
+                case 5: // key 1, min 0, max 1
+                    minKey = load(minKey, bit, true);
+                    break;
+                case 7: // key 1, min 1, max 1
+                case 0: // key 0, min 0, max 0
+                    break;
+                case 4: // key 1, min 0, max 0
+                    return bigMin;
+                default: // min above max on this dimension, impossible for a valid box
+                    throw new IllegalStateException("Invalid Morton box");
+            }
+        }
+        return bigMin;
+    }
+
+    /**
+     * Sets the given bit of a key's dimension (to 1 and the lower bits of that dimension to 0,
+     * or to 0 and the lower bits to 1)
+     */
+    private static long load(long key, int bit, boolean high) {
+        long dimension = 0x5555555555555555L << (bit & 1);
+        long lower = dimension & ((1L << bit) - 1);
+        return high ? (key & ~lower) | (1L << bit) : (key | lower) & ~(1L << bit);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Streams the entries of a rectangle in Morton order, then the sparse index
+     */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final long worldSeed;
+        private final GridParams grid;
+        private final int minGridX;
+        private final int minGridZ;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long[] sparse;
+        private long written;
+
+        Writer(FileChannel channel, long worldSeed, GridParams grid, int minGridX, int minGridZ, long entryCount)
+                throws IOException {
+            long sparseCount = (entryCount + SPARSE_INTERVAL - 1) / SPARSE_INTERVAL;
+            if (sparseCount > Integer.MAX_VALUE - 8) {
+                throw new IOException(entryCount + " entries are too many for one index file");
+            }
+            this.channel = channel;
+            this.worldSeed = worldSeed;
+            this.grid = grid;
+            this.minGridX = minGridX;
+            this.minGridZ = minGridZ;
+            this.sparse = new long[(int) sparseCount];
+        }
+
+        /**
+         * Emits the cells of the aligned square of side 2^level at (x, z), clipped to width x height
+         */
+        void quadrant(long x, long z, int level, long width, long height) throws IOException {
+            if (x >= width || z >= height) {
+                return;
+            }
+            if (level == 0) {
+                cell(x, z);
+                return;
+            }
+            long half = 1L << (level - 1);
+            // Morton order: x is in the odd (higher) bits, so z varies fastest
+            quadrant(x, z, level - 1, width, height);
+            quadrant(x, z + half, level - 1, width, height);
+            quadrant(x + half, z, level - 1, width, height);
+            quadrant(x + half, z + half, level - 1, width, height);
+        }
+
+        private void cell(long x, long z) throws IOException {
+            int gridX = (int) (minGridX + x);
+            int gridZ = (int) (minGridZ + z);
+            long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ);
+            long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+            int blockX = (int) (block >> 32);
+            int blockZ = (int) block;
+            long key = morton(x, z);
+
+            if (written % SPARSE_INTERVAL == 0) {
+                sparse[(int) (written / SPARSE_INTERVAL)] = key;
+            }
+            if (buffer.remaining() < ENTRY_BYTES) {
+                flush();
+            }
+            buffer.putLong(key)
+                .putInt(DungeonSpawnPredictor.unpackChunkX(chunk))
+                .putInt(DungeonSpawnPredictor.unpackChunkZ(chunk))
+                .putInt(blockX)
+                .putInt(blockZ)
+                .put((byte) TowerType.predictOrdinal(worldSeed, blockX, blockZ))
+                .put(PADDING);
+            written++;
+        }
+
+        void finish() throws IOException {
+            for (long key : sparse) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(key);
+            }
+            flush();
+            sparse = null;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.example;
+
+/**
+ * Ring-expanding spatial search over the spawn grid.
+ *
+ * Each grid cell holds exactly one dungeon, and its position is confined to a known box:
+ * the spawn chunk lies in [grid * max, grid * max + bound) on each axis, the base point is
+ * chunk * 16 + 4, and the entrance is at most MAX_OFFSET blocks from the base point. That
+ * gives a lower bound on the distance from a query point to any dungeon in a cell, and to
+ * any dungeon in all rings at or beyond a given ring, which lets a search walk outward from
+ * the query cell and stop as soon as no unvisited ring can improve the answer.
+ */
+final class SpawnSearch {
+
+    /**
+     * Upper bound of the getNearbyCoord offset length (40 + nextInt(60) < 100)
+     */
+    static final int MAX_OFFSET = 100;
+
+    /**
+     * Lower bound of the getNearbyCoord offset length
+     */
+    static final int MIN_OFFSET = 40;
+
+    /**
+     * Resolves the dungeon entrance of a grid cell
+     */
+    interface CellSource {
+        /**
+         * @return The dungeon block position packed as (blockX << 32) | (blockZ & 0xFFFFFFFFL)
+         */
+        long spawnBlock(int gridX, int gridZ);
+    }
+
+    /**
+     * Resolves the full dungeon spawn of a grid cell, for queries that return more than positions
+     */
+    interface SpawnSource extends CellSource {
+        /**
+         * @return The spawn chunk packed as (chunkX << 32) | (chunkZ & 0xFFFFFFFFL)
+         */
+        long spawnChunk(int gridX, int gridZ);
+
+        /**
+         * @return Ordinal of the TowerType of the cell
+         */
+        int towerType(int gridX, int gridZ);
+    }
+
+    private SpawnSearch() {
+    }
+
+    /**
+     * Source evaluating every cell directly from the world seed. Remembers the last cell, since
+     * queries usually ask for several properties of one cell in a row; not thread-safe.
+     */
+    static SpawnSource direct(long worldSeed, GridParams grid) {
+        return new DirectSource(worldSeed, grid);
+    }
+
+    private static final class DirectSource implements SpawnSource {
+        private final long worldSeed;
+        private final GridParams grid;
+
+        // Integer.MIN_VALUE is never a grid index (cells are at least 8 chunks wide)
+        private long cell = (long) Integer.MIN_VALUE << 32;
+        private long chunk;
+        private long block;
+
+        DirectSource(long worldSeed, GridParams grid) {
+            this.worldSeed = worldSeed;
+            this.grid = grid;
+        }
+
+        @Override
+        public long spawnBlock(int gridX, int gridZ) {
+            load(gridX, gridZ);
+            return block;
+        }
+
+        @Override
+        public long spawnChunk(int gridX, int gridZ) {
+            load(gridX, gridZ);
+            return chunk;
+        }
+
+        @Override
+        public int towerType(int gridX, int gridZ) {
+            load(gridX, gridZ);
+            return TowerType.predictOrdinal(worldSeed, (int) (block >> 32), (int) block);
+        }
+
+        private void load(int gridX, int gridZ) {
+            long key = ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+            if (key != cell) {
+                chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ);
+                block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+                cell = key;
+            }
+        }
+    }
+
+    /**
+     * Whether getNearbyCoord can produce the offset (offsetX, offsetZ).
+     *
+     * The offset is (int) (cos(angle) * distance), (int) (sin(angle) * distance) with a distance
+     * in [MIN_OFFSET, MAX_OFFSET). Truncation toward zero puts the exact point in the unit box
+     * just outside the offset, so the offset is reachable only if the box comes close enough to
+     * the origin and also extends past the inner radius.
+     */
+    static boolean isReachableOffset(int offsetX, int offsetZ) {
+        long ax = Math.abs((long) offsetX);
+        long az = Math.abs((long) offsetZ);
+        long maxLength = MAX_OFFSET - 1;
+        return ax * ax + az * az <= maxLength * maxLength
+            && (ax + 1) * (ax + 1) + (az + 1) * (az + 1) > (long) MIN_OFFSET * MIN_OFFSET;
+    }
+
+    /**
+     * Lowest block coordinate a dungeon of grid index g can have on one axis
+     */
+    static long minBlock(GridParams grid, int g) {
+        return (long) g * grid.cellSize * 16 + 4 - MAX_OFFSET;
+    }
+
+    /**
+     * Highest block coordinate a dungeon of grid index g can have on one axis
+     */
+    static long maxBlock(GridParams grid, int g) {
+        return ((long) g * grid.cellSize + grid.bound - 1) * 16 + 4 + MAX_OFFSET;
+    }
+
+    /**
+     * Lowest grid index whose dungeons can reach block coordinate minBlock or beyond on one axis
+     */
+    static int firstCellReaching(GridParams grid, int minBlock) {
+        long span = (long) grid.cellSize * 16;
+        long limit = (long) minBlock - 4 - MAX_OFFSET - (long) (grid.bound - 1) * 16;
+        return (int) -Math.floorDiv(-limit, span);
+    }
+
+    /**
+     * Highest grid index whose dungeons can reach block coordinate maxBlock or below on one axis
+     */
+    static int lastCellReaching(GridParams grid, int maxBlock) {
+        long span = (long) grid.cellSize * 16;
+        return (int) Math.floorDiv((long) maxBlock - 4 + MAX_OFFSET, span);
+    }
+
+    /**
+     * Lowest grid index whose dungeons all lie at block coordinate minBlock or beyond on one axis
+     */
+    static int firstCellInside(GridParams grid, int minBlock) {
+        long span = (long) grid.cellSize * 16;
+        long limit = (long) minBlock - 4 + MAX_OFFSET;
+        return (int) -Math.floorDiv(-limit, span);
+    }
+
+    /**
+     * Highest grid index whose dungeons all lie at block coordinate maxBlock or below on one axis
+     */
+    static int lastCellInside(GridParams grid, int maxBlock) {
+        long span = (long) grid.cellSize * 16;
+        return (int) Math.floorDiv((long) maxBlock - 4 - MAX_OFFSET - (long) (grid.bound - 1) * 16, span);
+    }
+
+    /**
+     * Distance from a point to an interval on one axis, 0 if the point is inside
+     */
+    private static double gap(long min, long max, int p) {
+        if (p < min) {
+            return min - p;
+        }
+        if (p > max) {
+            return p - max;
+        }
+        return 0;
+    }
+
+    /**
+     * Lower bound of the squared distance from (x, z) to the dungeon of a grid cell
+     */
+    static double cellDistanceSq(GridParams grid, int gridX, int gridZ, int x, int z) {
+        double dx = gap(minBlock(grid, gridX), maxBlock(grid, gridX), x);
+        double dz = gap(minBlock(grid, gridZ), maxBlock(grid, gridZ), z);
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Lower bound of the distance from (x, z) to any dungeon in a cell at Chebyshev
+     * distance ring or more from the center cell.
+     */
+    static double ringDistance(GridParams grid, int centerGridX, int centerGridZ, int ring, int x, int z) {
+        if (ring == 0) {
+            return 0;
+        }
+        // Such a cell lies entirely beyond one of the four sides of the inner square
+        double east = minBlock(grid, centerGridX + ring) - (double) x;
+        double west = x - (double) maxBlock(grid, centerGridX - ring);
+        double south = minBlock(grid, centerGridZ + ring) - (double) z;
+        double north = z - (double) maxBlock(grid, centerGridZ - ring);
+        double bound = Math.min(Math.min(east, west), Math.min(south, north));
+        return bound < 0 ? 0 : bound;
+    }
+
+    /**
+     * Squared distance between a point and a packed block position
+     */
+    static double distanceSq(long packedBlock, int x, int z) {
+        double dx = (double) (int) (packedBlock >> 32) - x;
+        double dz = (double) (int) packedBlock - z;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Number of cells in a ring: 1 for ring 0, 8 * ring otherwise
+     */
+    static int ringSize(int ring) {
+        return ring == 0 ? 1 : 8 * ring;
+    }
+
+    /**
+     * The index-th cell of a ring, walked clockwise from its (-ring, -ring) corner along
+     * +X, +Z, -X, -Z (the order of DungeonSpawnPredictor.predictDungeonChunksInRing()).
+     *
+     * @return The cell packed as (gridX << 32) | (gridZ & 0xFFFFFFFFL)
+     */
+    static long ringCell(int centerGridX, int centerGridZ, int ring, int index) {
+        if (ring == 0) {
+            return ((long) centerGridX << 32) | (centerGridZ & 0xFFFFFFFFL);
+        }
+
+        int side = 2 * ring;
+        int position = index % side;
+        int gridX;
+        int gridZ;
+        switch (index / side) {
+            case 0: gridX = centerGridX - ring + position; gridZ = centerGridZ - ring; break;
+            case 1: gridX = centerGridX + ring; gridZ = centerGridZ - ring + position; break;
+            case 2: gridX = centerGridX + ring - position; gridZ = centerGridZ + ring; break;
+            default: gridX = centerGridX - ring; gridZ = centerGridZ + ring - position; break;
+        }
+        return ((long) gridX << 32) | (gridZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Finds the grid cell holding the dungeon nearest to (x, z).
+     *
+     * Rings around the query cell are visited in order, and cells whose bounding box can't beat
+     * the best distance so far are skipped without evaluating them. Among equally distant
+     * dungeons the cell with the lowest (gridX, gridZ) wins, like the row-major scan.
+     *
+     * @param maxRing Last ring to visit
+     * @return The winning cell packed as (gridX << 32) | (gridZ & 0xFFFFFFFFL)
+     */
+    static long nearestCell(CellSource source, GridParams grid, int x, int z, int maxRing) {
+        SpawnHeap heap = new SpawnHeap(1);
+        nearestCells(source, grid, x, z, maxRing, heap);
+        long[] cell = new long[1];
+        heap.drainSorted(cell, null);
+        return cell[0];
+    }
+
+    /**
+     * Fills a bounded heap with the cells holding the dungeons nearest to (x, z).
+     * The search stops as soon as the heap is full and no unvisited ring can hold a
+     * dungeon that would enter it.
+     *
+     * @param maxRing Last ring to visit
+     * @param heap Receives the nearest cells, its capacity is the number of cells wanted
+     */
+    static void nearestCells(CellSource source, GridParams grid, int x, int z, int maxRing, SpawnHeap heap) {
+        int centerGridX = grid.gridIndex(x >> 4);
+        int centerGridZ = grid.gridIndex(z >> 4);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double reach = ringDistance(grid, centerGridX, centerGridZ, ring, x, z);
+            if (reach * reach > heap.worstDistance()) {
+                break;
+            }
+
+            int cells = ringSize(ring);
+            for (int i = 0; i < cells; i++) {
+                long cell = ringCell(centerGridX, centerGridZ, ring, i);
+                int gridX = (int) (cell >> 32);
+                int gridZ = (int) cell;
+                if (cellDistanceSq(grid, gridX, gridZ, x, z) <= heap.worstDistance()) {
+                    heap.offer(distanceSq(source.spawnBlock(gridX, gridZ), x, z), cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the cells found by cellsWithin()
+     */
+    interface CellVisitor {
+        void accept(int gridX, int gridZ, long packedBlock, double distanceSq);
+    }
+
+    /**
+     * Visits every cell whose dungeon lies within radius blocks of (x, z), in ring order.
+     * Only cells whose bounding box intersects the radius are evaluated.
+     */
+    static void cellsWithin(CellSource source, GridParams grid, int x, int z, double radius, CellVisitor visitor) {
+        int centerGridX = grid.gridIndex(x >> 4);
+        int centerGridZ = grid.gridIndex(z >> 4);
+        double radiusSq = radius * radius;
+
+        for (int ring = 0; ringDistance(grid, centerGridX, centerGridZ, ring, x, z) <= radius; ring++) {
+            int cells = ringSize(ring);
+            for (int i = 0; i < cells; i++) {
+                long cell = ringCell(centerGridX, centerGridZ, ring, i);
+                int gridX = (int) (cell >> 32);
+                int gridZ = (int) cell;
+                if (cellDistanceSq(grid, gridX, gridZ, x, z) <= radiusSq) {
+                    long block = source.spawnBlock(gridX, gridZ);
+                    double distance = distanceSq(block, x, z);
+                    if (distance <= radiusSq) {
+                        visitor.accept(gridX, gridZ, block, distance);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.concurrent.ForkJoinPool;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+
+/**
+ * Off-heap structure-of-arrays store of resolved dungeon spawns, for results too large for a List.
+ *
+ * Each spawn takes 17 bytes in five columns (chunkX, chunkZ, blockX, blockZ as ints and the
+ * TowerType ordinal as a byte), allocated from an Arena outside the Java heap. Entries are
+ * indexed by long, so a store can hold every cell of the world border, and the garbage
+ * collector never scans or copies them.
+ *
+ * Stores built by predict() hold the cells of a grid rectangle in row-major order, the order
+ * of DungeonSpawnPredictor.predictDungeonSpawns(). Reading is thread-safe; close() frees the
+ * memory of stores that own their arena, after which every access fails.
+ */
+public final class SpawnStore implements AutoCloseable {
+
+    /**
+     * Receives the entries of forEach() as primitives
+     */
+    @FunctionalInterface
+    public interface SpawnVisitor {
+        void accept(long index, int chunkX, int chunkZ, int blockX, int blockZ, int towerType);
+    }
+
+    // Cells evaluated per GridCursor.fillRow() call while filling
+    private static final int BLOCK = 4096;
+
+    private final Arena arena;
+    private final boolean ownsArena;
+    private final long size;
+
+    private final MemorySegment chunkX;
+    private final MemorySegment chunkZ;
+    private final MemorySegment blockX;
+    private final MemorySegment blockZ;
+    private final MemorySegment towerType;
+
+    /**
+     * Store of size entries in memory of the given arena, which the caller closes
+     */
+    public SpawnStore(Arena arena, long size) {
+        this(arena, false, size);
+    }
+
+    private SpawnStore(Arena arena, boolean ownsArena, long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        this.arena = arena;
+        this.ownsArena = ownsArena;
+        this.size = size;
+        long ints = Math.multiplyExact(size, Integer.BYTES);
+        this.chunkX = arena.allocate(ints, Integer.BYTES);
+        this.chunkZ = arena.allocate(ints, Integer.BYTES);
+        this.blockX = arena.allocate(ints, Integer.BYTES);
+        this.blockZ = arena.allocate(ints, Integer.BYTES);
+        this.towerType = arena.allocate(size, 1);
+    }
+
+    /**
+     * Predicts every dungeon spawn of a rectangle of grid cells into a new store, in parallel
+     * on the common ForkJoinPool. The store owns a shared arena that close() frees.
+     */
+    public static SpawnStore predict(long worldSeed, GridParams grid,
+                                     int minGridX, int minGridZ, int maxGridX, int maxGridZ) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return predict(worldSeed, grid, minGridX, minGridZ, maxGridX, maxGridZ, pool, pool.getParallelism());
+    }
+
+    /**
+     * Predicts every dungeon spawn of a rectangle of grid cells into a new store. The content is
+     * the same whatever the pool and parallelism.
+     *
+     * @param pool The pool to run on
+     * @param parallelism Maximum number of row tiles evaluated at once, capped at the pool's parallelism
+     */
+    public static SpawnStore predict(long worldSeed, GridParams grid,
+                                     int minGridX, int minGridZ, int maxGridX, int maxGridZ,
+                                     ForkJoinPool pool, int parallelism) {
+        long cells = DungeonSpawnPredictor.gridCellCount(minGridX, minGridZ, maxGridX, maxGridZ);
+        Arena arena = Arena.ofShared();
+        SpawnStore store;
+        try {
+            store = new SpawnStore(arena, true, cells);
+        } catch (RuntimeException | OutOfMemoryError e) {
+            arena.close();
+            throw e;
+        }
+        if (cells == 0) {
+            return store;
+        }
+
+        long columns = (long) maxGridZ - minGridZ + 1;
+        GridEngine engine = GridEngine.getDefault();
+        ParallelGridScan.forEachTile((long) maxGridX - minGridX + 1, pool, parallelism, (firstRow, lastRow) -> {
+            GridCursor cursor = new GridCursor(worldSeed, grid, engine);
+            long[] chunks = new long[(int) Math.min(BLOCK, columns)];
+            long index = firstRow * columns;
+
+            for (long row = firstRow; row < lastRow; row++) {
+                cursor.moveTo((int) (minGridX + row), minGridZ);
+                for (long done = 0; done < columns; ) {
+                    int count = (int) Math.min(chunks.length, columns - done);
+                    cursor.fillRow(count, chunks, 0);
+                    for (int i = 0; i < count; i++) {
+                        store.set(index++, worldSeed, chunks[i]);
+                    }
+                    done += count;
+                }
+            }
+        });
+        return store;
+    }
+
+    /**
+     * Resolves a packed spawn chunk (see DungeonSpawnPredictor.packChunk) into an entry
+     */
+    public void set(long index, long worldSeed, long packedChunk) {
+        long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, packedChunk);
+        int x = (int) (block >> 32);
+        int z = (int) block;
+        chunkX.setAtIndex(ValueLayout.JAVA_INT, index, DungeonSpawnPredictor.unpackChunkX(packedChunk));
+        chunkZ.setAtIndex(ValueLayout.JAVA_INT, index, DungeonSpawnPredictor.unpackChunkZ(packedChunk));
+        blockX.setAtIndex(ValueLayout.JAVA_INT, index, x);
+        blockZ.setAtIndex(ValueLayout.JAVA_INT, index, z);
+        towerType.set(ValueLayout.JAVA_BYTE, index,
+            (byte) TowerType.predictOrdinal(worldSeed, x, z));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getChunkX(long index) {
+        return chunkX.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    public int getChunkZ(long index) {
+        return chunkZ.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    public int getBlockX(long index) {
+        return blockX.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    public int getBlockZ(long index) {
+        return blockZ.getAtIndex(ValueLayout.JAVA_INT, index);
+    }
+
+    /**
+     * Tower type of an entry, see DungeonSpawnPredictor.predictTowerType()
+     */
+    public TowerType getTowerType(long index) {
+        return TowerType.byOrdinal(towerType.get(ValueLayout.JAVA_BYTE, index));
+    }
+
+    /**
+     * Copies an entry into a DungeonSpawn object
+     */
+    public DungeonSpawn get(long index) {
+        return new DungeonSpawn(new ChunkCoord(getChunkX(index), getChunkZ(index)),
+            getBlockX(index), getBlockZ(index), getTowerType(index));
+    }
+
+    /**
+     * Visits every entry in index order without creating objects
+     */
+    public void forEach(SpawnVisitor visitor) {
+        forEach(0, size, visitor);
+    }
+
+    /**
+     * Visits the entries [fromIndex, toIndex) in index order without creating objects
+     */
+    public void forEach(long fromIndex, long toIndex, SpawnVisitor visitor) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") of " + size + " entries");
+        }
+        for (long i = fromIndex; i < toIndex; i++) {
+            visitor.accept(i,
+                chunkX.getAtIndex(ValueLayout.JAVA_INT, i),
+                chunkZ.getAtIndex(ValueLayout.JAVA_INT, i),
+                blockX.getAtIndex(ValueLayout.JAVA_INT, i),
+                blockZ.getAtIndex(ValueLayout.JAVA_INT, i),
+                towerType.get(ValueLayout.JAVA_BYTE, i));
+        }
+    }
+
+    /**
+     * Frees the memory if the store owns its arena; otherwise closing the arena is up to the caller.
+     * Closing a closed store does nothing.
+     */
+    @Override
+    public void close() {
+        if (ownsArena && arena.scope().isAlive()) {
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.example;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tower types a dungeon can be predicted with, in selection order, with their weights.
+ *
+ * The prediction draws nextInt(100) from a Random seeded with worldSeed * blockX * blockZ and
+ * picks the type whose cumulative weight range holds the draw. The weights are integers
+ * summing to 100, so the whole cumulative scan is folded into a 100-entry lookup table built
+ * once; predicting a type is then one LCG step, the rejection check and an array load.
+ *
+ * The ordinal is the stable numeric form used by the packed and off-heap stores (SpawnStore,
+ * SpawnIndexFile, GridCellCache); byOrdinal() turns it back into a type.
+ */
+public enum TowerType {
+    ROGUE(30),      // Default/grassland
+    PYRAMID(10),    // Desert biome
+    JUNGLE(10),     // Jungle biome
+    WITCH(10),      // Swamp biome
+    HOUSE(15),      // Plains/village
+    BUNKER(10),     // Mountain/extreme hills
+    ETHO(10),       // Forest
+    ENIKO(5);       // Special/rare
+
+    /**
+     * Sum of all weights, the bound of the selection draw
+     */
+    public static final int TOTAL_WEIGHT = 100;
+
+    private static final TowerType[] VALUES = values();
+
+    /**
+     * Number of tower types, the size of arrays indexed by ordinal
+     */
+    public static final int COUNT = VALUES.length;
+
+    private static final Map<String, TowerType> BY_NAME = buildNames();
+
+    // Tower type ordinal for every selection draw 0..TOTAL_WEIGHT-1
+    private static final byte[] SELECTION = buildSelection();
+
+    // Draws r >= REJECTION_THRESHOLD are rejected and redrawn by nextInt(TOTAL_WEIGHT)
+    private static final int REJECTION_THRESHOLD = (int) ((1L << 31) / TOTAL_WEIGHT * TOTAL_WEIGHT);
+
+    public final int weight;
+
+    TowerType(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Tower type of an ordinal, without the copy values() makes
+     */
+    public static TowerType byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Tower type of a name, or null if it names none; unlike valueOf() it doesn't throw
+     */
+    public static TowerType byName(String name) {
+        return name == null ? null : BY_NAME.get(name);
+    }
+
+    /**
+     * Predicts the tower type of a dungeon entrance, see DungeonSpawnPredictor.predictTowerType()
+     */
+    public static TowerType predict(long worldSeed, int blockX, int blockZ) {
+        return VALUES[predictOrdinal(worldSeed, blockX, blockZ)];
+    }
+
+    /**
+     * Allocation-free variant of predict() returning the ordinal, equivalent to
+     *
+     *   new Random(worldSeed * blockX * blockZ).nextInt(100)
+     *
+     * followed by the cumulative weight scan.
+     */
+    public static int predictOrdinal(long worldSeed, int blockX, int blockZ) {
+        long s = GridRandom.advance(GridRandom.scramble(worldSeed * blockX * blockZ));
+        int r = (int) (s >>> 17);
+        while (r >= REJECTION_THRESHOLD) {
+            s = GridRandom.advance(s);
+            r = (int) (s >>> 17);
+        }
+        return SELECTION[r % TOTAL_WEIGHT];
+    }
+
+    private static Map<String, TowerType> buildNames() {
+        Map<String, TowerType> names = new HashMap<String, TowerType>();
+        for (TowerType type : VALUES) {
+            names.put(type.name(), type);
+        }
+        return names;
+    }
+
+    private static byte[] buildSelection() {
+        byte[] selection = new byte[TOTAL_WEIGHT];
+        int next = 0;
+        for (TowerType type : VALUES) {
+            for (int i = 0; i < type.weight; i++) {
+                selection[next++] = (byte) type.ordinal();
+            }
+        }
+        if (next != TOTAL_WEIGHT) {
+            throw new IllegalStateException("Tower weights sum to " + next + ", not " + TOTAL_WEIGHT);
+        }
+        return selection;
+    }
+}
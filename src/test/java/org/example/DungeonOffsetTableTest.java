@@ -0,0 +1,127 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.example.DungeonSpawnPredictor.BlockOffset;
+import org.junit.jupiter.api.Test;
+
+class DungeonOffsetTableTest {
+
+    private static final int TABLE_SIZE = 1024;
+
+    /**
+     * The getNearbyCoord() offset computed with java.util.Random and StrictMath
+     */
+    private static long reference(long worldSeed, int chunkX, int chunkZ) {
+        int x = chunkX * 16 + 4;
+        int z = chunkZ * 16 + 4;
+        Random random = new Random(worldSeed * x * z);
+        int distance = 40 + random.nextInt(60);
+        double angle = random.nextDouble() * 2 * Math.PI;
+        return reference(angle, distance);
+    }
+
+    private static long reference(double angle, int distance) {
+        int xOffset = (int) (StrictMath.cos(angle) * distance);
+        int zOffset = (int) (StrictMath.sin(angle) * distance);
+        return ((long) xOffset << 32) | (zOffset & 0xFFFFFFFFL);
+    }
+
+    private static void assertOffsets(double angle, int distance) {
+        if (angle >= 0 && angle < 2 * Math.PI) {
+            assertEquals(reference(angle, distance), DungeonOffsetTable.offsets(angle, distance),
+                "angle " + angle + ", distance " + distance);
+        }
+    }
+
+    @Test
+    void seededChunksMatchReference() {
+        long[] worldSeeds = {0, 123456789L, -987654321987L, Long.MIN_VALUE, 0x5DEECE66DL};
+        long[] chunks = new long[250];
+        int[] outX = new int[chunks.length];
+        int[] outZ = new int[chunks.length];
+        long mix = 99;
+
+        for (long worldSeed : worldSeeds) {
+            for (int round = 0; round < 400; round++) {
+                for (int i = 0; i < chunks.length; i++) {
+                    mix = mix * 6364136223846793005L + 1442695040888963407L;
+                    // Mostly near the origin, some out at the world border
+                    int range = i % 10 == 0 ? 1875000 : 5000;
+                    int chunkX = (int) Math.floorMod(mix >> 16, 2L * range) - range;
+                    int chunkZ = (int) Math.floorMod(mix >> 40, 2L * range) - range;
+                    chunks[i] = DungeonSpawnPredictor.packChunk(chunkX, chunkZ);
+                }
+                DungeonSpawnPredictor.predictDungeonOffsets(worldSeed, chunks, 0, chunks.length, outX, outZ);
+
+                for (int i = 0; i < chunks.length; i++) {
+                    int chunkX = DungeonSpawnPredictor.unpackChunkX(chunks[i]);
+                    int chunkZ = DungeonSpawnPredictor.unpackChunkZ(chunks[i]);
+                    long expected = reference(worldSeed, chunkX, chunkZ);
+                    assertEquals(expected, DungeonSpawnPredictor.predictDungeonOffsetPacked(worldSeed, chunkX, chunkZ),
+                        "seed " + worldSeed + ", chunk " + chunkX + "," + chunkZ);
+                    assertEquals((int) (expected >> 32), outX[i]);
+                    assertEquals((int) expected, outZ[i]);
+
+                    if (i % 50 == 0) {
+                        BlockOffset offset = DungeonSpawnPredictor.predictDungeonOffset(worldSeed, chunkX, chunkZ);
+                        assertEquals((int) (expected >> 32), offset.x);
+                        assertEquals((int) expected, offset.z);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void anglesAroundKnotsMatchReference() {
+        double step = 2 * Math.PI / TABLE_SIZE;
+        for (int k = 0; k <= TABLE_SIZE; k++) {
+            double knot = k * step;
+            double[] angles = {
+                knot, Math.nextDown(knot), Math.nextUp(knot),
+                Math.nextDown(Math.nextDown(knot)), Math.nextUp(Math.nextUp(knot)),
+                knot - 1e-12, knot + 1e-12, knot - 1e-6, knot + 1e-6,
+                knot + step / 2, knot + step * 0.999999
+            };
+            for (double angle : angles) {
+                for (int distance = 40; distance < 100; distance++) {
+                    assertOffsets(angle, distance);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nearIntegerProductsMatchReference() {
+        // Angles whose cos or sin times the distance is (almost) an integer take the fallback
+        for (int distance = 40; distance < 100; distance++) {
+            for (int j = -distance; j <= distance; j++) {
+                double base = StrictMath.acos(j / (double) distance);
+                double sine = StrictMath.asin(j / (double) distance);
+                double[] angles = {base, 2 * Math.PI - base, sine, Math.PI - sine, sine + 2 * Math.PI};
+                for (double angle : angles) {
+                    assertOffsets(angle, distance);
+                    assertOffsets(Math.nextDown(angle), distance);
+                    assertOffsets(Math.nextUp(angle), distance);
+                }
+            }
+        }
+    }
+
+    @Test
+    void extremeAnglesMatchReference() {
+        // Smallest and largest angles nextDouble() can give
+        double largest = ((1L << 53) - 1) * 0x1.0p-53 * 2 * Math.PI;
+        double smallest = 0x1.0p-53 * 2 * Math.PI;
+        for (int distance = 40; distance < 100; distance++) {
+            assertOffsets(0, distance);
+            assertOffsets(smallest, distance);
+            assertOffsets(largest, distance);
+            assertOffsets(Math.PI / 2, distance);
+            assertOffsets(Math.PI, distance);
+            assertOffsets(3 * Math.PI / 2, distance);
+        }
+    }
+}
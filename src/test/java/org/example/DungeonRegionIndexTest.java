@@ -0,0 +1,112 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DungeonRegionIndexTest {
+
+    private static final long WORLD_SEED = 31415926535L;
+
+    /**
+     * Checks every chunk of a region against willDungeonSpawnInChunk(), returning the dungeon count
+     */
+    private static int assertRegionMatches(DungeonRegionIndex index, int regionX, int regionZ) {
+        int dungeons = 0;
+        for (int chunkX = regionX * 32; chunkX < regionX * 32 + 32; chunkX++) {
+            for (int chunkZ = regionZ * 32; chunkZ < regionZ * 32 + 32; chunkZ++) {
+                boolean expected = DungeonSpawnPredictor.willDungeonSpawnInChunk(WORLD_SEED, chunkX, chunkZ,
+                    index.getGrid().spawnFrequency);
+                assertEquals(expected, index.isDungeonChunk(chunkX, chunkZ), "chunk " + chunkX + "," + chunkZ);
+                assertEquals(expected, index.isDungeonChunk(DungeonSpawnPredictor.packChunk(chunkX, chunkZ)));
+                if (expected) {
+                    dungeons++;
+                }
+            }
+        }
+        return dungeons;
+    }
+
+    @Test
+    void lookupsMatchWillDungeonSpawnInChunk() {
+        // The smallest cell size, a cell size that doesn't divide the region, and the default one
+        for (int frequency : new int[] {1, 7, 10}) {
+            DungeonRegionIndex index = new DungeonRegionIndex(WORLD_SEED, GridParams.of(frequency), DungeonRegionIndex.DEFAULT_CAPACITY);
+            int dungeons = 0;
+            for (int regionX = -3; regionX <= 2; regionX++) {
+                for (int regionZ = -3; regionZ <= 2; regionZ++) {
+                    dungeons += assertRegionMatches(index, regionX, regionZ);
+                }
+            }
+            assertTrue(dungeons > 0);
+            // Regions at the world border, 1875000 chunks out
+            assertRegionMatches(index, -58594, -58594);
+            assertRegionMatches(index, 58593, -58594);
+        }
+    }
+
+    @Test
+    void regionsSharingASlotEvictEachOther() {
+        DungeonRegionIndex index = new DungeonRegionIndex(WORLD_SEED, GridParams.of(10), 64);
+        assertEquals(64, index.slotCount());
+
+        // A negative region and the first other region found in the same slot
+        int regionX = -5;
+        int regionZ = -9;
+        int slot = index.slotOf(regionX, regionZ);
+        int otherX = 0;
+        int otherZ = 0;
+        search:
+        for (int x = -20; x <= 20; x++) {
+            for (int z = -20; z <= 20; z++) {
+                if ((x != regionX || z != regionZ) && index.slotOf(x, z) == slot) {
+                    otherX = x;
+                    otherZ = z;
+                    break search;
+                }
+            }
+        }
+        assertEquals(slot, index.slotOf(otherX, otherZ), "no region shares slot " + slot);
+
+        for (int round = 0; round < 3; round++) {
+            assertRegionMatches(index, regionX, regionZ);
+            assertTrue(index.hasTile(regionX, regionZ));
+            assertFalse(index.hasTile(otherX, otherZ));
+
+            // The other region takes the slot over, and the first is rebuilt on its next lookup
+            assertRegionMatches(index, otherX, otherZ);
+            assertTrue(index.hasTile(otherX, otherZ));
+            assertFalse(index.hasTile(regionX, regionZ));
+        }
+
+        index.clear();
+        assertFalse(index.hasTile(otherX, otherZ));
+        assertRegionMatches(index, otherX, otherZ);
+    }
+
+    @Test
+    void smallestTableStillAnswers() {
+        // Every region fights over the same couple of slots
+        DungeonRegionIndex index = new DungeonRegionIndex(WORLD_SEED, GridParams.of(10), 1);
+        assertEquals(2, index.slotCount());
+        for (int i = 0; i < 200; i++) {
+            int chunkX = (i * 7919) % 3001 - 1500;
+            int chunkZ = (i * 104729) % 2003 - 1000;
+            assertEquals(DungeonSpawnPredictor.willDungeonSpawnInChunk(WORLD_SEED, chunkX, chunkZ, 10),
+                index.isDungeonChunk(chunkX, chunkZ), "chunk " + chunkX + "," + chunkZ);
+        }
+        for (int regionX = -2; regionX <= 1; regionX++) {
+            assertRegionMatches(index, regionX, -regionX);
+        }
+    }
+
+    @Test
+    void rejectsBadCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new DungeonRegionIndex(WORLD_SEED, GridParams.of(10), 0));
+        assertThrows(IllegalArgumentException.class, () -> new DungeonRegionIndex(WORLD_SEED, GridParams.of(10), (1 << 30) + 1));
+        assertEquals(128, new DungeonRegionIndex(WORLD_SEED, GridParams.of(10), 100).slotCount());
+    }
+}
@@ -0,0 +1,212 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.example.DungeonSpawnPredictor.BasePointCandidate;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class DungeonSpawnBatchTest {
+
+    private static final long WORLD_SEED = 8675309L;
+    private static final GridParams GRID = GridParams.of(10);
+
+    // Query points, visited twice so the second pass runs on grown columns
+    private static final int[][] POINTS = {{0, 0}, {-12000, 7000}, {35000, -42000}, {513, -511}, {0, 0}, {-12000, 7000}};
+
+    private static String describe(DungeonSpawn spawn) {
+        return spawn.chunk.x + "," + spawn.chunk.z + " " + spawn.blockX + "," + spawn.blockZ + " " + spawn.towerType;
+    }
+
+    private static List<String> describe(List<DungeonSpawn> spawns) {
+        List<String> described = new ArrayList<String>();
+        for (DungeonSpawn spawn : spawns) {
+            described.add(describe(spawn));
+        }
+        return described;
+    }
+
+    private static List<String> describe(DungeonSpawnBatch batch, int count) {
+        assertEquals(count, batch.size());
+        return describe(batch.toList());
+    }
+
+    @Test
+    void reusedBatchMatchesObjectApi() {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch(0);
+        GridCellCache cache = new GridCellCache();
+
+        for (int[] p : POINTS) {
+            int x = p[0];
+            int z = p[1];
+
+            assertEquals(describe(DungeonSpawnPredictor.findKNearest(WORLD_SEED, GRID, x, z, 7)),
+                describe(batch, DungeonSpawnPredictor.findKNearest(WORLD_SEED, GRID, x, z, 7, batch)));
+            assertEquals(describe(DungeonSpawnPredictor.findKNearest(WORLD_SEED, GRID, x, z, 7)),
+                describe(batch, DungeonSpawnPredictor.findKNearest(cache, WORLD_SEED, GRID, x, z, 7, batch)));
+
+            assertEquals(describe(DungeonSpawnPredictor.findWithinRadius(WORLD_SEED, GRID, x, z, 2000)),
+                describe(batch, DungeonSpawnPredictor.findWithinRadius(WORLD_SEED, GRID, x, z, 2000, batch)));
+            assertEquals(describe(DungeonSpawnPredictor.findWithinRadius(WORLD_SEED, GRID, x, z, 2000)),
+                describe(batch, DungeonSpawnPredictor.findWithinRadius(cache, WORLD_SEED, GRID, x, z, 2000, batch)));
+
+            assertEquals(describe(DungeonSpawnPredictor.predictDungeonsInBox(WORLD_SEED, GRID, x - 3000, z - 1000, x + 2000, z + 4000)),
+                describe(batch, DungeonSpawnPredictor.predictDungeonsInBox(WORLD_SEED, GRID, x - 3000, z - 1000, x + 2000, z + 4000, batch)));
+            assertEquals(describe(DungeonSpawnPredictor.predictDungeonsInBox(WORLD_SEED, GRID, x - 3000, z - 1000, x + 2000, z + 4000)),
+                describe(batch, DungeonSpawnPredictor.predictDungeonsInBox(cache, WORLD_SEED, GRID, x - 3000, z - 1000, x + 2000, z + 4000, batch)));
+
+            DungeonSpawn nearest = DungeonSpawnPredictor.findNearestDungeon(WORLD_SEED, GRID, x, z);
+            assertEquals(List.of(describe(nearest)),
+                describe(batch, DungeonSpawnPredictor.findNearestDungeon(WORLD_SEED, GRID, x, z, Integer.MAX_VALUE - 1, batch)));
+            assertEquals(List.of(describe(nearest)),
+                describe(batch, DungeonSpawnPredictor.findNearestDungeon(cache, WORLD_SEED, GRID, x, z, batch)));
+
+            // Explicit clear() between uses, then a query that finds nothing
+            batch.clear();
+            assertEquals(0, batch.size());
+            assertEquals(0, DungeonSpawnPredictor.findNearestDungeon(WORLD_SEED, GRID, x, z, -1, batch));
+            assertEquals(0, DungeonSpawnPredictor.findKNearest(WORLD_SEED, GRID, x, z, 0, batch));
+            assertEquals(0, batch.size());
+        }
+
+        for (int radius : new int[] {0, 3, 1}) {
+            assertEquals(describe(DungeonSpawnPredictor.predictDungeonSpawns(WORLD_SEED, GRID, radius)),
+                describe(batch, DungeonSpawnPredictor.predictDungeonSpawns(WORLD_SEED, GRID, radius, batch)));
+            assertEquals(describe(DungeonSpawnPredictor.predictDungeonBasePoints(WORLD_SEED, GRID, radius)),
+                describe(batch, DungeonSpawnPredictor.predictDungeonBasePoints(WORLD_SEED, GRID, radius, batch)));
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(DungeonSpawnBatch.UNKNOWN_TOWER, batch.getTowerTypeOrdinal(i));
+                assertNull(batch.getTowerType(i));
+            }
+        }
+    }
+
+    @Test
+    void basePointBatchMatchesCandidates() {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch();
+        GridCellCache cache = new GridCellCache();
+        List<DungeonSpawn> spawns = DungeonSpawnPredictor.predictDungeonSpawns(WORLD_SEED, GRID, 2);
+        int matched = 0;
+
+        for (DungeonSpawn spawn : spawns) {
+            // The predicted entrance and a few blocks around it
+            for (int dx = -40; dx <= 40; dx += 40) {
+                int blockX = spawn.blockX + dx;
+                int blockZ = spawn.blockZ - dx / 2;
+                List<BasePointCandidate> candidates = DungeonSpawnPredictor.findBasePointsCovering(WORLD_SEED, GRID, blockX, blockZ);
+
+                for (int pass = 0; pass < 2; pass++) {
+                    int count = pass == 0
+                        ? DungeonSpawnPredictor.findBasePointsCovering(WORLD_SEED, GRID, blockX, blockZ, batch)
+                        : DungeonSpawnPredictor.findBasePointsCovering(cache, WORLD_SEED, GRID, blockX, blockZ, batch);
+                    assertEquals(candidates.size(), count);
+                    for (int i = 0; i < count; i++) {
+                        BasePointCandidate candidate = candidates.get(i);
+                        assertEquals(candidate.chunk.x, batch.getChunkX(i));
+                        assertEquals(candidate.chunk.z, batch.getChunkZ(i));
+                        assertEquals(candidate.baseX, batch.getChunkX(i) * 16 + 4);
+                        assertEquals(candidate.baseZ, batch.getChunkZ(i) * 16 + 4);
+                        assertEquals(candidate.offsetX, blockX - candidate.baseX);
+                        assertEquals(candidate.offsetZ, blockZ - candidate.baseZ);
+                        assertEquals(candidate.matchesPrediction, batch.getBlockX(i) == blockX && batch.getBlockZ(i) == blockZ);
+                        if (candidate.matchesPrediction) {
+                            matched++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(matched >= 2 * spawns.size());
+    }
+
+    @Test
+    void nearestDungeonBatchFillsSpawnBatch() {
+        NearestDungeonBatch nearest = new NearestDungeonBatch(WORLD_SEED, GRID, 256);
+        DungeonSpawnBatch batch = new DungeonSpawnBatch(1);
+
+        for (int round = 0; round < 3; round++) {
+            int count = 50 + round * 40;
+            int[] xs = new int[count];
+            int[] zs = new int[count];
+            for (int i = 0; i < count; i++) {
+                xs[i] = (i * 7919 + round * 1000) % 40000 - 20000;
+                zs[i] = (i * 104729 - round * 333) % 30000 - 15000;
+            }
+            nearest.findNearest(xs, zs, count, batch);
+
+            assertEquals(count, batch.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(describe(DungeonSpawnPredictor.findNearestDungeon(WORLD_SEED, GRID, xs[i], zs[i])),
+                    describe(batch.get(i)), "position " + i);
+            }
+        }
+    }
+
+    @Test
+    void sortByDistanceHandlesIntEdges() {
+        int[] coordinates = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -70000, -1, 0, 1, 70000, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        int[][] queries = {
+            {Integer.MAX_VALUE, Integer.MAX_VALUE}, {Integer.MIN_VALUE, Integer.MIN_VALUE},
+            {Integer.MIN_VALUE, Integer.MAX_VALUE}, {Integer.MAX_VALUE, 0}, {0, 0}
+        };
+        DungeonSpawnBatch batch = new DungeonSpawnBatch();
+
+        for (int[] query : queries) {
+            batch.clear();
+            List<long[]> expected = new ArrayList<long[]>();
+            int n = 0;
+            for (int blockX : coordinates) {
+                for (int blockZ : coordinates) {
+                    batch.add(blockX >> 4, blockZ >> 4, blockX, blockZ, n % TowerType.COUNT);
+                    expected.add(new long[] {blockX, blockZ, n % TowerType.COUNT});
+                    n++;
+                }
+            }
+            // A stable sort by the distance the object API uses
+            expected.sort(Comparator.comparingDouble(
+                e -> SpawnSearch.distanceSq(((long) e[0] << 32) | (e[1] & 0xFFFFFFFFL), query[0], query[1])));
+
+            batch.sortByDistance(query[0], query[1]);
+            String where = "query " + query[0] + "," + query[1];
+            for (int i = 0; i < n; i++) {
+                long[] e = expected.get(i);
+                assertEquals(e[0], batch.getBlockX(i), where + ", index " + i);
+                assertEquals(e[1], batch.getBlockZ(i), where + ", index " + i);
+                assertEquals(e[0] >> 4, batch.getChunkX(i));
+                assertEquals(e[1] >> 4, batch.getChunkZ(i));
+                assertEquals(e[2], batch.getTowerTypeOrdinal(i));
+            }
+            // The spawn on the query point first, the opposite corner last
+            assertEquals(query[0], batch.getBlockX(0), where);
+            assertEquals(query[1], batch.getBlockZ(0), where);
+        }
+
+        batch.sortByDistance(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(Integer.MIN_VALUE, batch.getBlockX(batch.size() - 1));
+        assertEquals(Integer.MIN_VALUE, batch.getBlockZ(batch.size() - 1));
+    }
+
+    @Test
+    void columnsGrowAndCheckIndices() {
+        DungeonSpawnBatch batch = new DungeonSpawnBatch(0);
+        for (int i = 0; i < 100; i++) {
+            batch.add(i, -i, 16 * i, -16 * i, i % TowerType.COUNT);
+        }
+        assertEquals(100, batch.size());
+        assertTrue(batch.capacity() >= 100);
+        assertEquals(TowerType.byOrdinal(99 % TowerType.COUNT), batch.getTowerType(99));
+
+        int capacity = batch.capacity();
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertEquals(capacity, batch.capacity());
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getBlockX(0));
+        assertThrows(IllegalArgumentException.class, () -> new DungeonSpawnBatch(-1));
+    }
+}
@@ -0,0 +1,343 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class DungeonSpawnPredictorTest {
+
+    private static final long[] WORLD_SEEDS = {0, 123456789L, -987654321987L};
+
+    @Test
+    void primitiveWithinRadiusMatchesList() {
+        GridParams grid = GridParams.of(10);
+        for (long worldSeed : WORLD_SEEDS) {
+            for (int[] query : new int[][] {{0, 0, 0}, {0, 0, 1500}, {-12345, 6789, 900}, {40000, -40000, 3000}}) {
+                List<DungeonSpawn> expected = DungeonSpawnPredictor.findWithinRadius(worldSeed, grid, query[0], query[1], query[2]);
+                Set<Long> expectedChunks = new HashSet<Long>();
+                Set<Long> expectedBlocks = new HashSet<Long>();
+                for (DungeonSpawn spawn : expected) {
+                    expectedChunks.add(DungeonSpawnPredictor.packChunk(spawn.chunk.x, spawn.chunk.z));
+                    expectedBlocks.add(DungeonSpawnPredictor.packChunk(spawn.blockX, spawn.blockZ));
+                }
+
+                long[] chunks = new long[expected.size() + 1];
+                long[] blocks = new long[expected.size() + 1];
+                int found = DungeonSpawnPredictor.findWithinRadius(worldSeed, grid, query[0], query[1], query[2], chunks, blocks);
+                assertEquals(expected.size(), found);
+
+                Set<Long> actualChunks = new HashSet<Long>();
+                Set<Long> actualBlocks = new HashSet<Long>();
+                for (int i = 0; i < found; i++) {
+                    actualChunks.add(chunks[i]);
+                    actualBlocks.add(blocks[i]);
+                    // Chunk and block of one spawn are written at the same index
+                    assertEquals(DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunks[i]), blocks[i]);
+                }
+                assertEquals(expectedChunks, actualChunks);
+                assertEquals(expectedBlocks, actualBlocks);
+
+                // Too small arrays still report the full count, and null skips an output
+                if (found > 0) {
+                    long[] small = new long[found - 1];
+                    assertEquals(found, DungeonSpawnPredictor.findWithinRadius(worldSeed, grid, query[0], query[1], query[2], small, null));
+                }
+            }
+        }
+        assertEquals(0, DungeonSpawnPredictor.findWithinRadius(1L, grid, 0, 0, -1, new long[4], new long[4]));
+    }
+
+    @Test
+    void batchedChunkChecksMatchSingleChecks() {
+        GridParams grid = GridParams.of(10);
+        for (long worldSeed : WORLD_SEEDS) {
+            // Row-major runs through several cells, then scattered chunks revisiting cells
+            long[] chunks = new long[3000];
+            int n = 0;
+            for (int x = -30; x < 20; x++) {
+                for (int z = -3; z < 37; z++) {
+                    chunks[n++] = DungeonSpawnPredictor.packChunk(x, z);
+                }
+            }
+            for (int i = 0; n < chunks.length; i++) {
+                chunks[n++] = DungeonSpawnPredictor.packChunk((i * 7919) % 301 - 150, (i * 104729) % 257 - 128);
+            }
+            // Make sure some answers are true
+            chunks[5] = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, 0, 0);
+            chunks[2500] = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, -4, 3);
+
+            boolean[] expected = new boolean[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                expected[i] = DungeonSpawnPredictor.willDungeonSpawnInChunk(worldSeed,
+                    DungeonSpawnPredictor.unpackChunkX(chunks[i]), DungeonSpawnPredictor.unpackChunkZ(chunks[i]), 10);
+            }
+            assertTrue(expected[5]);
+            assertTrue(expected[2500]);
+
+            boolean[] flags = new boolean[chunks.length - 7];
+            DungeonSpawnPredictor.willDungeonSpawnInChunks(worldSeed, grid, chunks, 7, chunks.length - 7, flags);
+            for (int i = 0; i < flags.length; i++) {
+                assertEquals(expected[i + 7], flags[i], "chunk " + (i + 7));
+            }
+
+            // Stale bits inside the range are cleared, bits past it are kept
+            BitSet bits = new BitSet();
+            bits.set(0, chunks.length + 10);
+            DungeonSpawnPredictor.willDungeonSpawnInChunks(worldSeed, 10, chunks, bits);
+            boolean[] actual = new boolean[chunks.length];
+            for (int i = 0; i < chunks.length; i++) {
+                actual[i] = bits.get(i);
+            }
+            assertArrayEquals(expected, actual);
+            assertTrue(bits.get(chunks.length + 9));
+            assertFalse(bits.get(chunks.length + 10));
+        }
+    }
+
+    @Test
+    void chunkCoordHashSpreadsSpawnLattice() {
+        // Chunks a whole number of cells apart, as the predictions return them
+        Set<Integer> hashes = new HashSet<Integer>();
+        Set<Integer> buckets = new HashSet<Integer>();
+        for (int x = -50; x < 50; x++) {
+            for (int z = -50; z < 50; z++) {
+                ChunkCoord chunk = new ChunkCoord(x * 10, z * 10);
+                int hash = chunk.hashCode();
+                assertEquals(Long.hashCode(LongHashSet.mix(DungeonSpawnPredictor.packChunk(x * 10, z * 10))), hash);
+                hashes.add(hash);
+                // The bucket of a HashMap with 1024 buckets
+                buckets.add((hash ^ (hash >>> 16)) & 1023);
+            }
+        }
+        assertTrue(hashes.size() >= 9990, hashes.size() + " distinct hashes");
+        assertTrue(buckets.size() >= 1000, buckets.size() + " of 1024 buckets used");
+
+        // Equal coordinates hash equally; pairs that x * 31 + z collided no longer do
+        assertEquals(new ChunkCoord(-3, 7).hashCode(), new ChunkCoord(-3, 7).hashCode());
+        assertEquals(new ChunkCoord(-3, 7), new ChunkCoord(-3, 7));
+        assertNotEquals(new ChunkCoord(0, 31).hashCode(), new ChunkCoord(1, 0).hashCode());
+        assertNotEquals(new ChunkCoord(2, -62).hashCode(), new ChunkCoord(0, 0).hashCode());
+
+        Map<ChunkCoord, Integer> map = new HashMap<ChunkCoord, Integer>();
+        for (int i = -500; i < 500; i++) {
+            map.put(new ChunkCoord(i * 10, -i * 10), i);
+        }
+        for (int i = -500; i < 500; i++) {
+            assertEquals(i, map.get(new ChunkCoord(i * 10, -i * 10)));
+        }
+    }
+
+    private static long[] remainingOf(LongBuffer buffer, int from, int to) {
+        long[] values = new long[to - from];
+        for (int i = from; i < to; i++) {
+            values[i - from] = buffer.get(i);
+        }
+        return values;
+    }
+
+    @Test
+    void bufferVariantMatchesArrayVariant() {
+        GridParams grid = GridParams.of(10);
+        LongBuffer heap = LongBuffer.allocate(20000);
+        LongBuffer direct = ByteBuffer.allocateDirect(20000 * Long.BYTES).asLongBuffer();
+        // A heap buffer whose array offset isn't 0
+        LongBuffer sliced = LongBuffer.allocate(20010).position(7).slice();
+
+        for (long worldSeed : WORLD_SEEDS) {
+            for (int radius : new int[] {0, 1, 5, 60}) {
+                int cells = (int) DungeonSpawnPredictor.gridCellCount(radius);
+                long[] expected = new long[cells];
+                assertEquals(cells, DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, radius, expected, 0));
+
+                for (LongBuffer buffer : new LongBuffer[] {heap, direct, sliced}) {
+                    String where = (buffer.isDirect() ? "direct" : "heap") + ", radius " + radius;
+                    buffer.clear();
+                    // Values around the written range stay as they were
+                    for (int i = 0; i < buffer.capacity(); i++) {
+                        buffer.put(i, -1);
+                    }
+                    buffer.position(11).limit(11 + cells + 3);
+
+                    assertEquals(cells, DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, radius, buffer), where);
+                    assertEquals(11 + cells, buffer.position(), where);
+                    assertEquals(11 + cells + 3, buffer.limit(), where);
+                    assertArrayEquals(expected, remainingOf(buffer, 11, 11 + cells), where);
+                    assertEquals(-1, buffer.get(10));
+                    assertEquals(-1, buffer.get(11 + cells));
+
+                    // A second call appends after the first, up to the limit
+                    if (radius == 0) {
+                        assertEquals(1, DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, 0, buffer));
+                        assertEquals(expected[0], buffer.get(12));
+                    }
+                }
+            }
+        }
+
+        // Too small: nothing written and the position unchanged
+        for (LongBuffer buffer : new LongBuffer[] {heap, direct, sliced}) {
+            buffer.clear();
+            buffer.position(5).limit(5 + 120);
+            assertThrows(BufferOverflowException.class,
+                () -> DungeonSpawnPredictor.predictDungeonChunksPacked(1L, grid, 5, buffer));
+            assertEquals(5, buffer.position());
+            assertEquals(-1, buffer.get(5));
+
+            // An empty grid writes nothing, even into a full buffer
+            buffer.position(buffer.limit());
+            assertEquals(0, DungeonSpawnPredictor.predictDungeonChunksPacked(1L, grid, -1, buffer));
+            assertEquals(buffer.limit(), buffer.position());
+        }
+
+        assertThrows(ReadOnlyBufferException.class,
+            () -> DungeonSpawnPredictor.predictDungeonChunksPacked(1L, grid, 2, LongBuffer.allocate(100).asReadOnlyBuffer()));
+    }
+
+    /**
+     * Grid cell of the nearest dungeon among the (2 * radius + 1)^2 cells around the player's
+     * cell, found by evaluating every one of them; ties go to the lower (gridX, gridZ)
+     */
+    private static long bruteForceNearestCell(long worldSeed, GridParams grid, int x, int z, int radius) {
+        int centerX = grid.gridIndex(x >> 4);
+        int centerZ = grid.gridIndex(z >> 4);
+        long best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int gridX = centerX - radius; gridX <= centerX + radius; gridX++) {
+            for (int gridZ = centerZ - radius; gridZ <= centerZ + radius; gridZ++) {
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed,
+                    DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ));
+                double dx = (double) (int) (block >> 32) - x;
+                double dz = (double) (int) block - z;
+                double distance = dx * dx + dz * dz;
+                // Row-major order visits lower cells first, so only a strictly closer one wins
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    best = DungeonSpawnPredictor.packChunk(gridX, gridZ);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Number of cells around the player's cell whose dungeon is exactly as close as the nearest
+     */
+    private static int nearestCount(long worldSeed, GridParams grid, int x, int z, int radius) {
+        long nearest = bruteForceNearestCell(worldSeed, grid, x, z, radius);
+        long nearestBlock = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, DungeonSpawnPredictor.evaluateGridCell(
+            worldSeed, grid, DungeonSpawnPredictor.unpackChunkX(nearest), DungeonSpawnPredictor.unpackChunkZ(nearest)));
+        double best = SpawnSearch.distanceSq(nearestBlock, x, z);
+        int centerX = grid.gridIndex(x >> 4);
+        int centerZ = grid.gridIndex(z >> 4);
+        int count = 0;
+        for (int gridX = centerX - radius; gridX <= centerX + radius; gridX++) {
+            for (int gridZ = centerZ - radius; gridZ <= centerZ + radius; gridZ++) {
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed,
+                    DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ));
+                if (SpawnSearch.distanceSq(block, x, z) == best) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static String describeCell(long worldSeed, GridParams grid, long cell) {
+        long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid,
+            DungeonSpawnPredictor.unpackChunkX(cell), DungeonSpawnPredictor.unpackChunkZ(cell));
+        long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+        int blockX = (int) (block >> 32);
+        int blockZ = (int) block;
+        return DungeonSpawnPredictor.unpackChunkX(chunk) + "," + DungeonSpawnPredictor.unpackChunkZ(chunk) + " "
+            + blockX + "," + blockZ + " " + TowerType.predict(worldSeed, blockX, blockZ);
+    }
+
+    private static String describeSpawn(DungeonSpawn spawn) {
+        return spawn.chunk.x + "," + spawn.chunk.z + " " + spawn.blockX + "," + spawn.blockZ + " " + spawn.type;
+    }
+
+    private static void assertNearestMatches(long worldSeed, GridParams grid, int x, int z) {
+        String where = "seed " + worldSeed + ", " + grid + ", player " + x + "," + z;
+        for (int radius : new int[] {0, 1, 2, 5}) {
+            assertEquals(describeCell(worldSeed, grid, bruteForceNearestCell(worldSeed, grid, x, z, radius)),
+                describeSpawn(DungeonSpawnPredictor.findNearestDungeon(worldSeed, grid, x, z, radius)),
+                where + ", radius " + radius);
+        }
+        // Beyond ring 5 no cell can hold a closer dungeon than the player's own cell does, even at
+        // the smallest cell size of 128 blocks: (5 - 1) * 128 - 100 > (128 + 100) * sqrt(2)
+        assertEquals(describeCell(worldSeed, grid, bruteForceNearestCell(worldSeed, grid, x, z, 6)),
+            describeSpawn(DungeonSpawnPredictor.findNearestDungeon(worldSeed, grid, x, z)), where);
+    }
+
+    @Test
+    void nearestDungeonMatchesBruteForce() {
+        Random random = new Random(424242);
+        for (long worldSeed : WORLD_SEEDS) {
+            for (GridParams grid : new GridParams[] {GridParams.of(1), GridParams.of(10), GridParams.of(13)}) {
+                // Around the origin, where cell indices change sign
+                for (int x = -700; x <= 700; x += 175) {
+                    for (int z = -700; z <= 700; z += 175) {
+                        assertNearestMatches(worldSeed, grid, x, z);
+                    }
+                }
+                // Far out in every quadrant, and at the world border
+                for (int i = 0; i < 40; i++) {
+                    assertNearestMatches(worldSeed, grid, random.nextInt(60000001) - 30000000, random.nextInt(60000001) - 30000000);
+                }
+                assertNearestMatches(worldSeed, grid, -29999999, -29999999);
+                assertNearestMatches(worldSeed, grid, 29999999, -29999999);
+                // On a dungeon entrance
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed,
+                    DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, -3, -2));
+                assertNearestMatches(worldSeed, grid, (int) (block >> 32), (int) block);
+            }
+        }
+        assertNull(DungeonSpawnPredictor.findNearestDungeon(1L, GridParams.of(10), 0, 0, -1));
+    }
+
+    @Test
+    void nearestDungeonTiesGoToLowerCell() {
+        // Players equidistant from the dungeons of two neighbouring cells, with nothing closer
+        GridParams grid = GridParams.of(1);
+        int ties = 0;
+        for (long worldSeed : WORLD_SEEDS) {
+            for (int gridX = -6; gridX <= 5; gridX++) {
+                for (int gridZ = -6; gridZ <= 5; gridZ++) {
+                    long a = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ));
+                    long b = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX + 1, gridZ + 1));
+                    int midX = (int) (((a >> 32) + (b >> 32)) >> 1);
+                    int midZ = (int) (((int) a + (long) (int) b) >> 1);
+                    for (int x = midX - 12; x <= midX + 12; x++) {
+                        for (int z = midZ - 12; z <= midZ + 12; z++) {
+                            if (SpawnSearch.distanceSq(a, x, z) == SpawnSearch.distanceSq(b, x, z)
+                                    && nearestCount(worldSeed, grid, x, z, 6) >= 2) {
+                                ties++;
+                                assertNearestMatches(worldSeed, grid, x, z);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(ties >= 20, ties + " ties");
+    }
+}
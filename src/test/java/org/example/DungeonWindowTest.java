@@ -0,0 +1,164 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class DungeonWindowTest {
+
+    private static final long WORLD_SEED = -4242424242L;
+
+    /**
+     * Records the changes of a window, failing on a spawn entering or leaving twice
+     */
+    private static final class Recorder implements DungeonWindow.Listener {
+        final Map<String, DungeonSpawn> entered = new HashMap<String, DungeonSpawn>();
+        final Map<String, DungeonSpawn> left = new HashMap<String, DungeonSpawn>();
+
+        @Override
+        public void entered(DungeonSpawn spawn) {
+            assertNull(entered.put(describe(spawn), spawn), "entered twice: " + spawn);
+        }
+
+        @Override
+        public void left(DungeonSpawn spawn) {
+            assertNull(left.put(describe(spawn), spawn), "left twice: " + spawn);
+        }
+    }
+
+    private static String describe(DungeonSpawn spawn) {
+        return spawn.chunk.x + "," + spawn.chunk.z + " " + spawn.blockX + "," + spawn.blockZ + " " + spawn.towerType;
+    }
+
+    private static Set<String> describe(List<DungeonSpawn> spawns) {
+        Set<String> described = new HashSet<String>();
+        for (DungeonSpawn spawn : spawns) {
+            assertTrue(described.add(describe(spawn)), "duplicate " + spawn);
+        }
+        return described;
+    }
+
+    /**
+     * Dungeons of the window around a block, found by checking every chunk of its cells
+     */
+    private static Set<String> bruteForce(GridParams grid, int radius, int blockX, int blockZ) {
+        int centerX = grid.gridIndex(blockX >> 4);
+        int centerZ = grid.gridIndex(blockZ >> 4);
+        Set<String> spawns = new HashSet<String>();
+        for (int chunkX = (centerX - radius) * grid.cellSize; chunkX < (centerX + radius + 1) * grid.cellSize; chunkX++) {
+            for (int chunkZ = (centerZ - radius) * grid.cellSize; chunkZ < (centerZ + radius + 1) * grid.cellSize; chunkZ++) {
+                if (DungeonSpawnPredictor.willDungeonSpawnInChunk(WORLD_SEED, chunkX, chunkZ, grid.spawnFrequency)) {
+                    DungeonSpawnPredictor.BlockOffset offset = DungeonSpawnPredictor.predictDungeonOffset(WORLD_SEED, chunkX, chunkZ);
+                    int x = chunkX * 16 + 4 + offset.x;
+                    int z = chunkZ * 16 + 4 + offset.z;
+                    spawns.add(chunkX + "," + chunkZ + " " + x + "," + z + " " + TowerType.predict(WORLD_SEED, x, z).name());
+                }
+            }
+        }
+        assertEquals((2 * radius + 1) * (2 * radius + 1), spawns.size());
+        return spawns;
+    }
+
+    private static void assertMove(DungeonWindow window, GridParams grid, int blockX, int blockZ) {
+        Set<String> before = describe(window.getDungeons());
+        Recorder recorder = new Recorder();
+        boolean changed = window.moveTo(blockX, blockZ, recorder);
+
+        Set<String> after = describe(window.getDungeons());
+        String where = "move to " + blockX + "," + blockZ;
+        assertEquals(bruteForce(grid, window.getRadius(), blockX, blockZ), after, where);
+        assertEquals(grid.gridIndex(blockX >> 4), window.getCenterGridX());
+        assertEquals(grid.gridIndex(blockZ >> 4), window.getCenterGridZ());
+
+        // Exactly the difference of the old and new windows is reported
+        Set<String> entering = new HashSet<String>(after);
+        entering.removeAll(before);
+        Set<String> leaving = new HashSet<String>(before);
+        leaving.removeAll(after);
+        assertEquals(entering, recorder.entered.keySet(), where);
+        assertEquals(leaving, recorder.left.keySet(), where);
+        assertEquals(!entering.isEmpty(), changed, where);
+    }
+
+    @Test
+    void walkingChunkByChunkMatchesBruteForce() {
+        for (GridParams grid : new GridParams[] {GridParams.of(10), GridParams.of(13)}) {
+            for (int radius : new int[] {0, 1, 3}) {
+                DungeonWindow window = new DungeonWindow(WORLD_SEED, grid, radius);
+                assertTrue(window.getDungeons().isEmpty());
+
+                // East across the origin, then north, then diagonally south-west, one chunk per step
+                int x = -200;
+                int z = 37;
+                assertMove(window, grid, x, z);
+                for (int step = 0; step < 40; step++) {
+                    x += 16;
+                    assertMove(window, grid, x, z);
+                }
+                for (int step = 0; step < 30; step++) {
+                    z -= 16;
+                    assertMove(window, grid, x, z);
+                }
+                for (int step = 0; step < 30; step++) {
+                    x -= 16;
+                    z += 16;
+                    assertMove(window, grid, x, z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void teleportsMatchBruteForce() {
+        GridParams grid = GridParams.of(10);
+        DungeonWindow window = new DungeonWindow(WORLD_SEED, grid, 2);
+        int span = grid.cellSize * 16;
+        int[][] targets = {
+            {0, 0},
+            // Overlapping the old window by a few cells, from every side
+            {3 * span, 0}, {3 * span, -2 * span}, {-span, span}, {-span, 5 * span},
+            // Far away, no overlap at all, and back
+            {1000000, -1000000}, {1000005, -1000003}, {-29999984, 29999984}, {0, 0},
+            // Staying inside one cell reports nothing
+            {5, 5}, {span - 1, span - 1}
+        };
+        for (int[] target : targets) {
+            assertMove(window, grid, target[0], target[1]);
+        }
+        assertFalse(window.moveTo(1, span - 2, null));
+    }
+
+    @Test
+    void cachedWindowMatchesDirectWindow() {
+        GridParams grid = GridParams.of(10);
+        GridCellCache cache = new GridCellCache();
+        DungeonWindow direct = new DungeonWindow(WORLD_SEED, grid, 2);
+        DungeonWindow cached = new DungeonWindow(cache, WORLD_SEED, grid, 2);
+        List<String> moves = new ArrayList<String>();
+        for (int step = 0; step < 50; step++) {
+            int x = step * 37 - 900;
+            int z = -step * 53 + 400;
+            direct.moveTo(x, z, null);
+            cached.moveTo(x, z, null);
+            moves.add(x + "," + z);
+            assertEquals(describe(direct.getDungeons()), describe(cached.getDungeons()), moves.toString());
+        }
+    }
+
+    @Test
+    void rejectsBadRadius() {
+        assertThrows(IllegalArgumentException.class, () -> new DungeonWindow(WORLD_SEED, 10, -1));
+        assertThrows(IllegalArgumentException.class, () -> new DungeonWindow(WORLD_SEED, 10, 1025));
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GridCursorTest {
+
+    private static final int[] FREQUENCIES = {1, 10, 13, 37, 63913225};
+
+    @Test
+    void singleCellsMatchEvaluateGridCell() {
+        GridParams grid = GridParams.of(13);
+        GridCursor cursor = new GridCursor(-77L, grid, GridEngine.SCALAR);
+        for (int gridX = -6; gridX <= 6; gridX++) {
+            cursor.moveTo(gridX, -9);
+            for (int gridZ = -9; gridZ <= 9; gridZ++) {
+                assertEquals(gridX, cursor.getGridX());
+                assertEquals(gridZ, cursor.getGridZ());
+                assertEquals(DungeonSpawnPredictor.evaluateGridCell(-77L, grid, gridX, gridZ), cursor.spawnChunk());
+                cursor.nextZ();
+            }
+        }
+    }
+
+    @Test
+    void multiFrequencyRowsMatchSingleFrequency() {
+        GridParams[] grids = new GridParams[FREQUENCIES.length];
+        for (int f = 0; f < grids.length; f++) {
+            grids[f] = GridParams.of(FREQUENCIES[f]);
+        }
+
+        for (GridEngine engine : GridEngine.values()) {
+            if (!engine.isAvailable()) {
+                continue;
+            }
+            // Short rows, and rows spanning several scratch blocks, on one reused cursor
+            for (int columns : new int[] {1, 7, 1024, 2500}) {
+                GridCursor cursor = new GridCursor(31337L, grids[0], engine);
+                long[][] out = new long[grids.length][3 + 3 * columns];
+                for (int row = 0; row < 3; row++) {
+                    cursor.moveTo(row - 1, -columns / 2);
+                    cursor.fillRow(grids, columns, out, 3 + row * columns);
+                    assertEquals(row - 1, cursor.getGridX());
+                    assertEquals(-columns / 2 + columns, cursor.getGridZ());
+                }
+
+                for (int f = 0; f < grids.length; f++) {
+                    long[] expected = new long[3 + 3 * columns];
+                    GridCursor single = new GridCursor(31337L, grids[f], engine);
+                    for (int row = 0; row < 3; row++) {
+                        single.moveTo(row - 1, -columns / 2);
+                        single.fillRow(columns, expected, 3 + row * columns);
+                    }
+                    assertArrayEquals(expected, out[f], engine + ", " + grids[f] + ", " + columns + " columns");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GridEngineTest {
+
+    // 63913225 and 67108863 reject about 7% and 2.5% of draws, 13 about 1.5%, 10 never
+    private static final int[] FREQUENCIES = {10, 13, 63913225, 67108863};
+
+    private static final long[] WORLD_SEEDS = {0, 123456789L, -987654321987L, Long.MIN_VALUE, 0x7FFF_FFFF_FFFF_FFFFL};
+
+    private GridEngine previous;
+
+    @BeforeEach
+    void saveDefault() {
+        previous = GridEngine.getDefault();
+    }
+
+    @AfterEach
+    void restoreDefault() {
+        GridEngine.setDefault(previous);
+    }
+
+    private static long referenceCell(long worldSeed, GridParams grid, int gridX, int gridZ) {
+        Random random = new Random((gridX * 341873128712L + gridZ * 132897987541L + worldSeed + 10387312) * 14357617);
+        int x = gridX * grid.cellSize + random.nextInt(grid.bound);
+        int z = gridZ * grid.cellSize + random.nextInt(grid.bound);
+        return DungeonSpawnPredictor.packChunk(x, z);
+    }
+
+    private static long[] predict(GridEngine engine, long worldSeed, GridParams grid, int minGX, int minGZ, int maxGX, int maxGZ) {
+        GridEngine.setDefault(engine);
+        long[] out = new long[(int) DungeonSpawnPredictor.gridCellCount(minGX, minGZ, maxGX, maxGZ) + 1];
+        // Non-zero offset to catch indexing against the start of the array
+        int count = DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, minGX, minGZ, maxGX, maxGZ, out, 1);
+        assertEquals(out.length - 1, count);
+        return out;
+    }
+
+    @Test
+    void scalarMatchesRandom() {
+        for (int frequency : FREQUENCIES) {
+            GridParams grid = GridParams.of(frequency);
+            for (long worldSeed : WORLD_SEEDS) {
+                long[] out = predict(GridEngine.SCALAR, worldSeed, grid, -3, -5, 4, 6);
+                int index = 1;
+                for (int gridX = -3; gridX <= 4; gridX++) {
+                    for (int gridZ = -5; gridZ <= 6; gridZ++) {
+                        assertEquals(referenceCell(worldSeed, grid, gridX, gridZ), out[index++], grid + " cell " + gridX + "," + gridZ);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorMatchesScalar() {
+        assumeTrue(GridEngine.VECTOR.isAvailable(), "start the JVM with --add-modules jdk.incubator.vector");
+
+        // Every row length up to several vectors, so full vectors, the masked rejection
+        // fallback and each scalar tail length all occur
+        int maxColumns = 4 * GridVectorKernel.LANES + 3;
+        for (int frequency : FREQUENCIES) {
+            GridParams grid = GridParams.of(frequency);
+            // Keep chunk coordinates of the huge cells within int range
+            int reach = frequency > 1000 ? 4 : 300;
+            for (long worldSeed : WORLD_SEEDS) {
+                for (int columns = 1; columns <= maxColumns; columns++) {
+                    int minGZ = -reach + columns % 5;
+                    int maxGZ = minGZ + columns - 1;
+                    long[] scalar = predict(GridEngine.SCALAR, worldSeed, grid, -reach, minGZ, -reach + 5, maxGZ);
+                    long[] vector = predict(GridEngine.VECTOR, worldSeed, grid, -reach, minGZ, -reach + 5, maxGZ);
+                    assertArrayEquals(scalar, vector, grid + ", seed " + worldSeed + ", " + columns + " columns");
+                }
+            }
+        }
+    }
+
+    @Test
+    void vectorMatchesScalarOverLargeArea() {
+        assumeTrue(GridEngine.VECTOR.isAvailable(), "start the JVM with --add-modules jdk.incubator.vector");
+
+        for (int frequency : new int[] {1, 10, 13, 37}) {
+            GridParams grid = GridParams.of(frequency);
+            long[] scalar = predict(GridEngine.SCALAR, 42, grid, -40, -61, 41, 60);
+            long[] vector = predict(GridEngine.VECTOR, 42, grid, -40, -61, 41, 60);
+            assertArrayEquals(scalar, vector, grid.toString());
+        }
+    }
+}
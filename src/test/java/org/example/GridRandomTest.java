@@ -0,0 +1,155 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GridRandomTest {
+
+    private static final int[] BOUNDS = {
+        1, 2, 8, 16, 1 << 30,                          // powers of two
+        3, 6, 17, 24, 48, 100, 161061271,              // others
+        (1 << 30) + 1, (1 << 30) + 12345, Integer.MAX_VALUE // rejected almost half the time
+    };
+
+    private static final int[] FREQUENCIES = {0, 1, 5, 10, 13, 20, 100, 255, 256, 1000, 67108863};
+
+    /**
+     * Fixed corpus: edge values, negative seeds, seeds with the high 16 bits set (dropped by the
+     * 48-bit scramble) and a SplitMix64 sequence
+     */
+    private static long[] seeds() {
+        long[] fixed = {
+            0, 1, -1, 2, -2, 123456789L, -123456789L,
+            Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE + 1,
+            GridRandom.MULTIPLIER, ~GridRandom.MULTIPLIER, GridRandom.MASK, ~GridRandom.MASK,
+            0xFFFF000000000000L, 0xFFFF000000000001L, 0x7FFF800000000000L, 0x8000FFFFFFFFFFFFL
+        };
+        long[] seeds = new long[fixed.length + 20000];
+        System.arraycopy(fixed, 0, seeds, 0, fixed.length);
+        long mix = 0x5DEECE66DL;
+        for (int i = fixed.length; i < seeds.length; i++) {
+            mix += 0x9E3779B97F4A7C15L;
+            long seed = mix;
+            seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+            seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+            seeds[i] = seed ^ (seed >>> 31);
+        }
+        return seeds;
+    }
+
+    @Test
+    void scrambleMatchesRandomSeed() {
+        for (long seed : seeds()) {
+            // Two full 32-bit draws pin down the 48-bit state the scramble produced
+            Random expected = new Random(seed);
+            long state = GridRandom.advance(GridRandom.scramble(seed));
+            assertEquals(expected.nextInt(), (int) (state >>> 16), "seed " + seed);
+            state = GridRandom.advance(state);
+            assertEquals(expected.nextInt(), (int) (state >>> 16), "seed " + seed);
+        }
+    }
+
+    @Test
+    void nextMatchesRandom() {
+        for (long seed : seeds()) {
+            Random expected = new Random(seed);
+            GridRandom actual = new GridRandom(seed);
+            for (int i = 0; i < 8; i++) {
+                assertEquals(expected.nextInt(), actual.next(32), "seed " + seed);
+                assertEquals(expected.nextInt(1 << 26), actual.next(26), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void nextIntMatchesRandom() {
+        for (long seed : seeds()) {
+            for (int bound : BOUNDS) {
+                Random expected = new Random(seed);
+                GridRandom actual = new GridRandom(seed);
+                for (int i = 0; i < 4; i++) {
+                    assertEquals(expected.nextInt(bound), actual.nextInt(bound), "seed " + seed + ", bound " + bound);
+                }
+                // Both generators must have consumed the same number of draws
+                assertEquals(expected.nextInt(), actual.next(32), "seed " + seed + ", bound " + bound);
+            }
+        }
+    }
+
+    @Test
+    void nextDoubleMatchesRandom() {
+        for (long seed : seeds()) {
+            Random expected = new Random(seed);
+            GridRandom actual = new GridRandom(seed);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(expected.nextDouble(), actual.nextDouble(), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void setSeedRestartsSequence() {
+        GridRandom random = new GridRandom(42);
+        random.nextInt(17);
+        random.setSeed(-42);
+        Random expected = new Random(-42);
+        assertEquals(expected.nextInt(17), random.nextInt(17));
+        assertEquals(expected.nextDouble(), random.nextDouble());
+    }
+
+    @Test
+    void cellOffsetsMatchRandom() {
+        for (long seed : seeds()) {
+            for (int bound : BOUNDS) {
+                Random expected = new Random(seed);
+                int x = expected.nextInt(bound);
+                int z = expected.nextInt(bound);
+                long offsets = GridRandom.cellOffsets(seed, bound);
+                assertEquals(x, (int) (offsets >> 32), "seed " + seed + ", bound " + bound);
+                assertEquals(z, (int) offsets, "seed " + seed + ", bound " + bound);
+            }
+        }
+    }
+
+    @Test
+    void cellOffsetsWithParamsMatchRandom() {
+        for (int frequency : FREQUENCIES) {
+            GridParams params = GridParams.of(frequency);
+            for (long seed : seeds()) {
+                Random expected = new Random(seed);
+                int x = expected.nextInt(params.bound);
+                int z = expected.nextInt(params.bound);
+                long offsets = GridRandom.cellOffsets(seed, params);
+                assertEquals(x, (int) (offsets >> 32), "seed " + seed + ", " + params);
+                assertEquals(z, (int) offsets, "seed " + seed + ", " + params);
+            }
+        }
+    }
+
+    @Test
+    void cellOffsetsOfGridSeedsMatchRandom() {
+        // The seeds the grid walk actually produces, including negative cells
+        GridParams params = GridParams.of(10);
+        for (long worldSeed : new long[] {0, 123456789L, -987654321987L, Long.MIN_VALUE}) {
+            for (int gridX = -40; gridX <= 40; gridX += 3) {
+                for (int gridZ = -40; gridZ <= 40; gridZ += 7) {
+                    long seed = GridRandom.gridSeed(worldSeed, gridX, gridZ);
+                    Random expected = new Random(seed);
+                    long packed = ((long) expected.nextInt(params.bound) << 32) | (expected.nextInt(params.bound) & 0xFFFFFFFFL);
+                    assertEquals(packed, GridRandom.cellOffsets(seed, params));
+                    assertEquals(packed, GridRandom.cellOffsets(seed, params.bound));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new GridRandom(1).nextInt(0));
+        assertThrows(IllegalArgumentException.class, () -> new GridRandom(1).nextInt(-5));
+        assertThrows(IllegalArgumentException.class, () -> GridRandom.cellOffsets(1, 0));
+    }
+}
@@ -0,0 +1,143 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class GridScanTest {
+
+    /**
+     * Collects every delivered packed chunk in order
+     */
+    private static final class Collector implements GridScan.ChunkSink {
+        long[] values = new long[256];
+        int size;
+
+        @Override
+        public void accept(long[] packedChunks, int count) {
+            if (size + count > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + count));
+            }
+            System.arraycopy(packedChunks, 0, values, size, count);
+            size += count;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static long[] serial(long worldSeed, GridParams grid, int minGX, int minGZ, int maxGX, int maxGZ) {
+        long[] out = new long[(int) DungeonSpawnPredictor.gridCellCount(minGX, minGZ, maxGX, maxGZ)];
+        DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, minGX, minGZ, maxGX, maxGZ, out, 0);
+        return out;
+    }
+
+    @Test
+    void fullRunMatchesSerial() throws IOException {
+        GridParams grid = GridParams.of(10);
+        // Rows longer than a block, so rows are delivered in several blocks
+        GridScan scan = new GridScan(77L, grid, -2, -5000, 1, 4100);
+        Collector sink = new Collector();
+        assertEquals(scan.getTotalCells(), scan.run(sink));
+        assertTrue(scan.isComplete());
+        assertArrayEquals(serial(77L, grid, -2, -5000, 1, 4100), sink.toArray());
+        assertEquals(0, scan.run(sink));
+    }
+
+    @Test
+    void resumeFromCheckpointsMatchesSerial() throws IOException {
+        GridParams grid = GridParams.of(13);
+        long[] expected = serial(-4242L, grid, -17, -9, 12, 21);
+
+        // 31 columns per row: steps of 7, 31 and 100 cells stop mid-row, at row ends and across rows
+        for (long step : new long[] {1, 7, 31, 100, 929}) {
+            Collector sink = new Collector();
+            GridScan scan = new GridScan(-4242L, grid, -17, -9, 12, 21);
+            while (!scan.isComplete()) {
+                long before = scan.getCompletedCells();
+                long delivered = scan.run(sink, step);
+                assertEquals(Math.min(step, scan.getTotalCells() - before), delivered);
+
+                String checkpoint = scan.checkpoint();
+                scan = GridScan.resume(checkpoint);
+                assertEquals(checkpoint, scan.checkpoint());
+                assertEquals(before + delivered, scan.getCompletedCells());
+            }
+            assertArrayEquals(expected, sink.toArray(), "step " + step);
+        }
+    }
+
+    @Test
+    void resumeMidRow() throws IOException {
+        GridParams grid = GridParams.of(10);
+        GridScan scan = new GridScan(5L, grid, 3, -4, 6, 5);
+        Collector first = new Collector();
+        scan.run(first, 14);
+        String checkpoint = scan.checkpoint();
+        assertTrue(checkpoint.endsWith(",14"), checkpoint);
+
+        Collector rest = new Collector();
+        GridScan resumed = GridScan.resume(" " + checkpoint + "\n");
+        resumed.run(rest);
+
+        long[] expected = serial(5L, grid, 3, -4, 6, 5);
+        assertArrayEquals(Arrays.copyOf(expected, 14), first.toArray());
+        assertArrayEquals(Arrays.copyOfRange(expected, 14, expected.length), rest.toArray());
+    }
+
+    @Test
+    void failedBlockIsDeliveredAgain() throws IOException {
+        GridParams grid = GridParams.of(10);
+        GridScan scan = new GridScan(1L, grid, 0, 0, 3, 9);
+        Collector sink = new Collector();
+        scan.run(sink, 15);
+
+        assertThrows(IOException.class, () -> scan.run((packedChunks, count) -> {
+            throw new IOException("disk full");
+        }));
+        assertEquals(15, scan.getCompletedCells());
+
+        GridScan.resume(scan.checkpoint()).run(sink);
+        assertArrayEquals(serial(1L, grid, 0, 0, 3, 9), sink.toArray());
+    }
+
+    @Test
+    void interruptedRunLeavesValidCheckpoint() throws IOException {
+        GridParams grid = GridParams.of(10);
+        GridScan scan = new GridScan(8L, grid, -3, -3, 3, 3);
+        Collector sink = new Collector();
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(0, scan.run(sink));
+        } finally {
+            Thread.interrupted();
+        }
+        assertFalse(scan.isComplete());
+        GridScan.resume(scan.checkpoint()).run(sink);
+        assertArrayEquals(serial(8L, grid, -3, -3, 3, 3), sink.toArray());
+    }
+
+    @Test
+    void rejectsMalformedCheckpoints() {
+        String[] malformed = {
+            "",
+            "1,10,0,0,3,3",
+            "1,10,0,0,3,3,4,5",
+            "1,10,0,0,3,three,4",
+            "1;10;0;0;3;3;4",
+            "1,10,0,0,3,3,-1",
+            "1,10,0,0,3,3,17",
+            "99999999999999999999,10,0,0,3,3,4"
+        };
+        for (String checkpoint : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> GridScan.resume(checkpoint), checkpoint);
+        }
+    }
+}
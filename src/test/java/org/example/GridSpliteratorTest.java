@@ -0,0 +1,159 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class GridSpliteratorTest {
+
+    private static final long WORLD_SEED = 271828182845L;
+    private static final GridParams GRID = GridParams.of(10);
+
+    private static long[] packed(int minGX, int minGZ, int maxGX, int maxGZ) {
+        long[] out = new long[(int) DungeonSpawnPredictor.gridCellCount(minGX, minGZ, maxGX, maxGZ)];
+        DungeonSpawnPredictor.predictDungeonChunksPacked(WORLD_SEED, GRID, minGX, minGZ, maxGX, maxGZ, out, 0);
+        return out;
+    }
+
+    private static String describe(DungeonSpawn spawn) {
+        return spawn.chunk.x + "," + spawn.chunk.z + " " + spawn.blockX + "," + spawn.blockZ + " " + spawn.towerType;
+    }
+
+    /**
+     * Values of a spliterator, traversed alternately with tryAdvance and forEachRemaining
+     */
+    private static void traverse(Spliterator.OfLong spliterator, List<Long> out, boolean stepFirst) {
+        if (stepFirst) {
+            for (int i = 0; i < 3 && spliterator.tryAdvance((long value) -> out.add(value)); i++) {
+                // Take a few values one by one, then the rest in blocks
+            }
+        }
+        spliterator.forEachRemaining((long value) -> out.add(value));
+        assertEquals(0, spliterator.estimateSize());
+        assertFalse(spliterator.tryAdvance((long value) -> out.add(value)));
+    }
+
+    /**
+     * Splits recursively down to the leaves, checking every split, and collects the leaves in order
+     */
+    private static void splitAndCollect(Spliterator.OfLong spliterator, List<Long> out, int depth) {
+        long size = spliterator.estimateSize();
+        Spliterator.OfLong prefix = depth < 6 ? spliterator.trySplit() : null;
+        if (prefix == null) {
+            traverse(spliterator, out, depth % 2 == 0);
+            return;
+        }
+
+        int required = Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED;
+        assertEquals(required, prefix.characteristics() & required);
+        assertEquals(required, spliterator.characteristics() & required);
+        assertEquals(size, prefix.estimateSize() + spliterator.estimateSize());
+        assertEquals(prefix.estimateSize(), prefix.getExactSizeIfKnown());
+        // Halves differ by at most one cell
+        assertTrue(Math.abs(prefix.estimateSize() - spliterator.estimateSize()) <= 1);
+
+        // The prefix holds the first half in encounter order, so the leaves concatenate to the whole
+        splitAndCollect(prefix, out, depth + 1);
+        splitAndCollect(spliterator, out, depth + 1);
+    }
+
+    @Test
+    void sequentialStreamMatchesPredictDungeonSpawns() {
+        for (int radius : new int[] {0, 1, 7, 40}) {
+            List<String> expected = new ArrayList<String>();
+            for (DungeonSpawn spawn : DungeonSpawnPredictor.predictDungeonSpawns(WORLD_SEED, GRID, radius)) {
+                expected.add(describe(spawn));
+            }
+            List<String> streamed = DungeonSpawnPredictor.streamDungeonSpawns(WORLD_SEED, GRID, radius)
+                .map(GridSpliteratorTest::describe)
+                .collect(Collectors.toList());
+            assertEquals(expected, streamed, "radius " + radius);
+
+            assertArrayEquals(packed(-radius, -radius, radius, radius),
+                DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, radius).toArray());
+        }
+        assertArrayEquals(packed(-30, 5, 12, 2500),
+            DungeonSpawnPredictor.streamDungeonChunksInGrid(WORLD_SEED, GRID, -30, 5, 12, 2500).toArray());
+        assertEquals(0, DungeonSpawnPredictor.streamDungeonChunksInGrid(WORLD_SEED, GRID, 3, 3, 2, 2).count());
+    }
+
+    @Test
+    void splitsAreSizedAndDisjoint() {
+        // Rectangles whose halves start and end mid-row, and a single long row
+        int[][] rectangles = {{-40, -40, 40, 40}, {-3, -700, 2, 699}, {0, -5000, 0, 4999}, {-17, 3, 29, 51}};
+        for (int[] r : rectangles) {
+            long[] expected = packed(r[0], r[1], r[2], r[3]);
+            GridSpliterator spliterator = GridSpliterator.of(WORLD_SEED, GRID, r[0], r[1], r[2], r[3]);
+            assertEquals(expected.length, spliterator.getExactSizeIfKnown());
+
+            List<Long> values = new ArrayList<Long>();
+            splitAndCollect(spliterator, values, 0);
+            long[] actual = new long[values.size()];
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] = values.get(i);
+            }
+            assertArrayEquals(expected, actual, "rectangle " + r[0] + "," + r[1] + " .. " + r[2] + "," + r[3]);
+        }
+
+        // Too small to be worth splitting
+        assertNull(GridSpliterator.of(WORLD_SEED, GRID, 0, 0, 9, 9).trySplit());
+    }
+
+    @Test
+    void parallelCollectMatchesSequential() {
+        List<String> sequential = DungeonSpawnPredictor.streamDungeonSpawns(WORLD_SEED, GRID, 60)
+            .map(GridSpliteratorTest::describe)
+            .collect(Collectors.toList());
+        List<String> parallel = DungeonSpawnPredictor.streamDungeonSpawns(WORLD_SEED, GRID, 60)
+            .parallel()
+            .map(GridSpliteratorTest::describe)
+            .collect(Collectors.toList());
+        assertEquals(sequential, parallel);
+
+        assertArrayEquals(DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, 60).toArray(),
+            DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, 60).parallel().toArray());
+        assertEquals(DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, 60).sum(),
+            DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, 60).parallel().sum());
+    }
+
+    @Test
+    void shortCircuitingStopsEarly() {
+        // About 4 * 10^12 cells: only lazy evaluation can answer these
+        int radius = 1000000;
+        long[] firstRow = packed(-radius, -radius, -radius, -radius + 9);
+
+        AtomicLong evaluated = new AtomicLong();
+        long[] limited = DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, radius)
+            .peek(chunk -> evaluated.incrementAndGet())
+            .limit(10)
+            .toArray();
+        assertArrayEquals(firstRow, limited);
+        assertEquals(10, evaluated.get());
+
+        evaluated.set(0);
+        assertEquals(firstRow[0], DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, radius)
+            .peek(chunk -> evaluated.incrementAndGet())
+            .findFirst()
+            .getAsLong());
+        assertEquals(1, evaluated.get());
+
+        DungeonSpawn first = DungeonSpawnPredictor.streamDungeonSpawns(WORLD_SEED, GRID, radius).findFirst().get();
+        assertEquals(firstRow[0], DungeonSpawnPredictor.packChunk(first.chunk.x, first.chunk.z));
+
+        evaluated.set(0);
+        assertTrue(DungeonSpawnPredictor.streamDungeonChunks(WORLD_SEED, GRID, radius)
+            .peek(chunk -> evaluated.incrementAndGet())
+            .anyMatch(chunk -> chunk == firstRow[5]));
+        assertEquals(6, evaluated.get());
+    }
+}
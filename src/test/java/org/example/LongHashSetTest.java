@@ -0,0 +1,190 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTest {
+
+    // Table size of a new set, before it first grows
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The first count keys, other than 0, that hash to the given slot of a table of capacity
+     */
+    static long[] keysWithSlot(int slot, int capacity, int count) {
+        long[] keys = new long[count];
+        int n = 0;
+        for (long key = 1; n < count; key++) {
+            if (((int) LongHashSet.mix(key) & (capacity - 1)) == slot) {
+                keys[n++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private static void assertSameKeys(Set<Long> expected, LongHashSet actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        Set<Long> visited = new HashSet<Long>();
+        actual.forEach(key -> assertTrue(visited.add(key), "key " + key + " visited twice"));
+        assertEquals(expected, visited);
+        Set<Long> array = new HashSet<Long>();
+        for (long key : actual.toArray()) {
+            array.add(key);
+        }
+        assertEquals(expected, array);
+        assertEquals(expected.size(), actual.toArray().length);
+    }
+
+    @Test
+    void randomOperationsMatchHashSet() {
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 20; round++) {
+            // Few distinct keys so removes and re-adds hit present keys, plus the special ones
+            int range = 8 << round % 10;
+            LongHashSet set = round % 2 == 0 ? new LongHashSet() : new LongHashSet(range);
+            Set<Long> expected = new HashSet<Long>();
+
+            for (int op = 0; op < 20000; op++) {
+                long key;
+                switch (random.nextInt(12)) {
+                    case 0: key = 0; break;
+                    case 1: key = Long.MIN_VALUE; break;
+                    case 2: key = Long.MAX_VALUE; break;
+                    case 3: key = -1; break;
+                    default: key = (random.nextInt(range) - range / 2) * 16L; break;
+                }
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.add(key), set.add(key), "add " + key);
+                        break;
+                    case 1:
+                        assertEquals(expected.remove(key), set.remove(key), "remove " + key);
+                        break;
+                    default:
+                        assertEquals(expected.contains(key), set.contains(key), "contains " + key);
+                        break;
+                }
+                assertEquals(expected.size(), set.size());
+            }
+            assertSameKeys(expected, set);
+            for (long key = -range * 16L; key <= range * 16L; key += 16) {
+                assertEquals(expected.contains(key), set.contains(key));
+            }
+
+            set.clear();
+            assertSameKeys(new HashSet<Long>(), set);
+            assertFalse(set.contains(0));
+        }
+    }
+
+    @Test
+    void zeroAndMinValueAreKeys() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(Long.MIN_VALUE));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Long.MIN_VALUE));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.remove(0));
+        assertFalse(set.contains(0));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(Long.MIN_VALUE));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void removeInsideCollisionCluster() {
+        // Home slots in the middle of the table and at its end, where the run wraps to slot 0
+        for (int home : new int[] {3, INITIAL_CAPACITY - 2, INITIAL_CAPACITY - 1}) {
+            long[] cluster = keysWithSlot(home, INITIAL_CAPACITY, 5);
+            // A key whose home is the slot right after the cluster's, displaced by the cluster
+            long[] next = keysWithSlot((home + 1) % INITIAL_CAPACITY, INITIAL_CAPACITY, 2);
+
+            for (int removed = 0; removed < cluster.length; removed++) {
+                LongHashSet set = new LongHashSet();
+                Set<Long> expected = new HashSet<Long>();
+                for (long key : cluster) {
+                    set.add(key);
+                    expected.add(key);
+                }
+                for (long key : next) {
+                    set.add(key);
+                    expected.add(key);
+                }
+                // Still in the initial table, so every key above probes the same run
+                assertEquals(7, set.size());
+
+                assertTrue(set.remove(cluster[removed]));
+                expected.remove(cluster[removed]);
+                for (long key : expected) {
+                    assertTrue(set.contains(key), "home " + home + ", removed " + removed + ", lost " + key);
+                }
+                assertFalse(set.contains(cluster[removed]));
+                assertSameKeys(expected, set);
+
+                // Removing the rest one by one, from the end of the run, keeps the others findable
+                List<Long> rest = new ArrayList<Long>(expected);
+                for (int i = rest.size() - 1; i >= 0; i--) {
+                    assertTrue(set.remove(rest.get(i)));
+                    expected.remove(rest.get(i));
+                    for (long key : expected) {
+                        assertTrue(set.contains(key));
+                    }
+                }
+                assertTrue(set.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void growsPastLoadFactor() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<Long>();
+        // Half of 16 slots fit, the ninth key grows the table; keep going through several doublings
+        for (int i = 1; i <= 5000; i++) {
+            long key = DungeonSpawnPredictor.packChunk(i * 10, -i * 10);
+            assertTrue(set.add(key));
+            expected.add(key);
+            if (i <= 20 || i % 500 == 0) {
+                assertSameKeys(expected, set);
+            }
+        }
+        for (long key : expected) {
+            assertTrue(set.contains(key));
+        }
+        assertFalse(set.contains(DungeonSpawnPredictor.packChunk(5, 5)));
+    }
+
+    @Test
+    void buildsFromArrayRange() {
+        long[] keys = {7, 0, Long.MIN_VALUE, 7, 42, -3};
+        LongHashSet set = new LongHashSet(keys, 1, 4);
+        assertSameKeys(Set.of(0L, Long.MIN_VALUE, 7L, 42L), set);
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(-1));
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet(Integer.MAX_VALUE));
+        assertEquals(INITIAL_CAPACITY, LongHashSet.tableSize(0));
+        assertEquals(INITIAL_CAPACITY, LongHashSet.tableSize(8));
+        assertEquals(32, LongHashSet.tableSize(9));
+        assertEquals(1 << 30, LongHashSet.tableSize(1 << 29));
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongLongMapTest {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MISSING = 0x7EADBEEFL;
+
+    private static void assertSameEntries(Map<Long, Long> expected, LongLongMap actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        Map<Long, Long> visited = new HashMap<Long, Long>();
+        actual.forEach((key, value) -> assertNull(visited.put(key, value), "key " + key + " visited twice"));
+        assertEquals(expected, visited);
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().longValue(), actual.get(entry.getKey(), MISSING));
+            assertTrue(actual.containsKey(entry.getKey()));
+        }
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(77L);
+        for (int round = 0; round < 20; round++) {
+            int range = 8 << round % 10;
+            LongLongMap map = round % 2 == 0 ? new LongLongMap() : new LongLongMap(range);
+            Map<Long, Long> expected = new HashMap<Long, Long>();
+
+            for (int op = 0; op < 20000; op++) {
+                long key;
+                switch (random.nextInt(12)) {
+                    case 0: key = 0; break;
+                    case 1: key = Long.MIN_VALUE; break;
+                    case 2: key = Long.MAX_VALUE; break;
+                    case 3: key = -1; break;
+                    default: key = (random.nextInt(range) - range / 2) * 16L; break;
+                }
+                long value = random.nextLong();
+                switch (random.nextInt(4)) {
+                    case 0: {
+                        Long previous = expected.put(key, value);
+                        assertEquals(previous == null ? MISSING : previous, map.put(key, value, MISSING), "put " + key);
+                        break;
+                    }
+                    case 1:
+                        assertEquals(expected.remove(key) != null, map.remove(key), "remove " + key);
+                        break;
+                    case 2:
+                        assertEquals(expected.containsKey(key), map.containsKey(key), "containsKey " + key);
+                        break;
+                    default:
+                        assertEquals(expected.getOrDefault(key, MISSING).longValue(), map.get(key, MISSING), "get " + key);
+                        break;
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            assertSameEntries(expected, map);
+
+            map.clear();
+            assertSameEntries(new HashMap<Long, Long>(), map);
+            assertEquals(MISSING, map.get(0, MISSING));
+        }
+    }
+
+    @Test
+    void zeroAndMinValueAreKeys() {
+        LongLongMap map = new LongLongMap();
+        assertEquals(MISSING, map.get(0, MISSING));
+        assertEquals(MISSING, map.put(0, 5, MISSING));
+        assertEquals(5, map.put(0, 6, MISSING));
+        // A value of 0 is still an entry
+        map.put(Long.MIN_VALUE, 0);
+        assertTrue(map.containsKey(Long.MIN_VALUE));
+        assertEquals(0, map.get(Long.MIN_VALUE, MISSING));
+        assertEquals(2, map.size());
+
+        assertTrue(map.remove(0));
+        assertFalse(map.remove(0));
+        assertEquals(MISSING, map.get(0, MISSING));
+        assertFalse(map.containsKey(0));
+        assertEquals(0, map.get(Long.MIN_VALUE, MISSING));
+        assertTrue(map.remove(Long.MIN_VALUE));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void removeInsideCollisionCluster() {
+        for (int home : new int[] {3, INITIAL_CAPACITY - 2, INITIAL_CAPACITY - 1}) {
+            long[] cluster = LongHashSetTest.keysWithSlot(home, INITIAL_CAPACITY, 5);
+            long[] next = LongHashSetTest.keysWithSlot((home + 1) % INITIAL_CAPACITY, INITIAL_CAPACITY, 2);
+
+            for (int removed = 0; removed < cluster.length; removed++) {
+                LongLongMap map = new LongLongMap();
+                Map<Long, Long> expected = new HashMap<Long, Long>();
+                for (long key : cluster) {
+                    map.put(key, ~key);
+                    expected.put(key, ~key);
+                }
+                for (long key : next) {
+                    map.put(key, key * 3);
+                    expected.put(key, key * 3);
+                }
+                assertEquals(7, map.size());
+
+                assertTrue(map.remove(cluster[removed]));
+                expected.remove(cluster[removed]);
+                assertFalse(map.containsKey(cluster[removed]));
+                // The shifted entries keep their values
+                assertSameEntries(expected, map);
+            }
+        }
+    }
+
+    @Test
+    void growsPastLoadFactor() {
+        LongLongMap map = new LongLongMap();
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        for (int i = 1; i <= 5000; i++) {
+            long key = DungeonSpawnPredictor.packChunk(-i * 10, i * 10);
+            map.put(key, i);
+            expected.put(key, (long) i);
+            if (i <= 20 || i % 500 == 0) {
+                assertSameEntries(expected, map);
+            }
+        }
+    }
+
+    @Test
+    void buildsFromArrayRangeWithLaterDuplicatesWinning() {
+        long[] keys = {1, 0, 9, 0, 9, Long.MIN_VALUE};
+        long[] values = {10, 20, 30, 40, 50, 60};
+        LongLongMap map = new LongLongMap(keys, values, 1, 4);
+        assertSameEntries(Map.of(0L, 40L, 9L, 50L), map);
+        assertThrows(IllegalArgumentException.class, () -> new LongLongMap(-1));
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ParallelGridScanTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    private static long[] serial(long worldSeed, GridParams grid, int minGX, int minGZ, int maxGX, int maxGZ) {
+        long[] out = new long[(int) DungeonSpawnPredictor.gridCellCount(minGX, minGZ, maxGX, maxGZ) + 2];
+        DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, minGX, minGZ, maxGX, maxGZ, out, 2);
+        return out;
+    }
+
+    private static long[] parallel(long worldSeed, GridParams grid, int minGX, int minGZ, int maxGX, int maxGZ,
+                                   ForkJoinPool pool, int parallelism) {
+        long[] out = new long[(int) DungeonSpawnPredictor.gridCellCount(minGX, minGZ, maxGX, maxGZ) + 2];
+        int count = DungeonSpawnPredictor.predictDungeonChunksParallelPacked(worldSeed, grid,
+            minGX, minGZ, maxGX, maxGZ, out, 2, pool, parallelism);
+        assertEquals(out.length - 2, count);
+        return out;
+    }
+
+    @Test
+    void parallelMatchesSerialInOrder() {
+        // Shapes with fewer rows than workers, a single row, a single column and many rows
+        int[][] rectangles = {
+            {0, 0, 0, 0}, {-3, -40, -3, 40}, {-50, 7, 50, 7}, {-2, -9, 0, 13},
+            {-37, -21, 41, 18}, {-300, -5, 299, 5}
+        };
+        for (GridParams grid : new GridParams[] {GridParams.of(10), GridParams.of(13), GridParams.of(1)}) {
+            for (int[] r : rectangles) {
+                long[] expected = serial(-5831L, grid, r[0], r[1], r[2], r[3]);
+                for (int parallelism : new int[] {1, 2, 3, 4, 16}) {
+                    assertArrayEquals(expected, parallel(-5831L, grid, r[0], r[1], r[2], r[3], pool, parallelism),
+                        grid + ", rows " + r[0] + ".." + r[2] + ", parallelism " + parallelism);
+                }
+            }
+        }
+    }
+
+    @Test
+    void parallelListMatchesSerialList() {
+        GridParams grid = GridParams.of(10);
+        List<ChunkCoord> expected = DungeonSpawnPredictor.predictDungeonChunks(99L, grid, 30);
+        assertEquals(expected, DungeonSpawnPredictor.predictDungeonChunksParallel(99L, grid, 30));
+        assertEquals(expected, DungeonSpawnPredictor.predictDungeonChunksParallel(99L, grid, 30, pool, 3));
+    }
+
+    @Test
+    void tilesCoverEveryRowOnce() {
+        for (long rows : new long[] {1, 2, 3, 5, 15, 16, 17, 1000, 4099}) {
+            for (int parallelism : new int[] {1, 2, 4, 7}) {
+                AtomicIntegerArray visits = new AtomicIntegerArray((int) rows);
+                AtomicLong tiles = new AtomicLong();
+                ParallelGridScan.forEachTile(rows, pool, parallelism, (firstRow, lastRow) -> {
+                    tiles.incrementAndGet();
+                    for (long row = firstRow; row < lastRow; row++) {
+                        visits.incrementAndGet((int) row);
+                    }
+                });
+                for (int row = 0; row < rows; row++) {
+                    assertEquals(1, visits.get(row), "row " + row + " of " + rows);
+                }
+                // At most a few tiles per worker, however many rows
+                int workers = Math.min(parallelism, pool.getParallelism());
+                assertTrue(tiles.get() <= Math.min(rows, 4L * workers), tiles.get() + " tiles for " + rows + " rows");
+            }
+        }
+    }
+
+    @Test
+    void parallelismLimitsTilesRunningAtOnce() {
+        for (int parallelism : new int[] {1, 2, 3, 4, 16}) {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            AtomicLong rowsDone = new AtomicLong();
+            ParallelGridScan.forEachTile(64, pool, parallelism, (firstRow, lastRow) -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    // Long enough for the other workers to pick up tiles if they were allowed to
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                rowsDone.addAndGet(lastRow - firstRow);
+                running.decrementAndGet();
+            });
+            assertEquals(64, rowsDone.get());
+            assertTrue(peak.get() <= Math.min(parallelism, pool.getParallelism()),
+                peak.get() + " tiles at once with parallelism " + parallelism);
+        }
+
+        // The same limit from inside a task of the pool, where joins may run other tasks
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        pool.submit(() -> ParallelGridScan.forEachTile(64, pool, 2, (firstRow, lastRow) -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.onSpinWait();
+            running.decrementAndGet();
+        })).join();
+        assertTrue(peak.get() <= 2, peak.get() + " tiles at once with parallelism 2");
+    }
+
+    @Test
+    void rejectsParallelismBelowOne() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ParallelGridScan.forEachTile(10, pool, 0, (firstRow, lastRow) -> { }));
+    }
+}
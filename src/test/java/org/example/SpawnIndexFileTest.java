@@ -0,0 +1,217 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpawnIndexFileTest {
+
+    private static final long WORLD_SEED = -2918374650123L;
+    private static final GridParams GRID = GridParams.of(10);
+
+    // 120 x 81 cells: several sparse index blocks of 4096 entries, not a square, all negative corners
+    private static final int MIN_GRID_X = -90;
+    private static final int MIN_GRID_Z = -60;
+    private static final int MAX_GRID_X = 29;
+    private static final int MAX_GRID_Z = 20;
+
+    @TempDir
+    static Path directory;
+
+    private static Path path;
+    private static SpawnIndexFile index;
+
+    @BeforeAll
+    static void writeIndex() throws IOException {
+        path = directory.resolve("spawns.rldi");
+        SpawnIndexFile.write(path, WORLD_SEED, GRID, MIN_GRID_X, MIN_GRID_Z, MAX_GRID_X, MAX_GRID_Z);
+        index = SpawnIndexFile.open(path);
+    }
+
+    @AfterAll
+    static void closeIndex() {
+        index.close();
+    }
+
+    private static String describe(DungeonSpawn spawn) {
+        return spawn.chunk.x + "," + spawn.chunk.z + " " + spawn.blockX + "," + spawn.blockZ + " " + spawn.type;
+    }
+
+    private static List<String> sorted(List<DungeonSpawn> spawns) {
+        List<String> described = new ArrayList<String>();
+        for (DungeonSpawn spawn : spawns) {
+            described.add(describe(spawn));
+        }
+        Collections.sort(described);
+        return described;
+    }
+
+    private static void assertBoxMatches(int minBlockX, int minBlockZ, int maxBlockX, int maxBlockZ) {
+        List<DungeonSpawn> expected = DungeonSpawnPredictor.predictDungeonsInBox(WORLD_SEED, GRID, minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+        List<DungeonSpawn> actual = index.predictDungeonsInBox(minBlockX, minBlockZ, maxBlockX, maxBlockZ);
+        assertEquals(sorted(expected), sorted(actual),
+            "box " + minBlockX + "," + minBlockZ + " .. " + maxBlockX + "," + maxBlockZ);
+    }
+
+    /**
+     * Grid cells of the file in entry order
+     */
+    private static long[] cellsInEntryOrder() {
+        int width = MAX_GRID_X - MIN_GRID_X + 1;
+        int height = MAX_GRID_Z - MIN_GRID_Z + 1;
+        long[] keys = new long[width * height];
+        int n = 0;
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < height; z++) {
+                keys[n++] = SpawnIndexFile.morton(x, z);
+            }
+        }
+        Arrays.sort(keys);
+        long[] cells = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            long x = 0;
+            long z = 0;
+            for (int bit = 0; bit < 32; bit++) {
+                x |= ((keys[i] >>> (2 * bit + 1)) & 1) << bit;
+                z |= ((keys[i] >>> (2 * bit)) & 1) << bit;
+            }
+            cells[i] = DungeonSpawnPredictor.packChunk((int) (MIN_GRID_X + x), (int) (MIN_GRID_Z + z));
+        }
+        return cells;
+    }
+
+    @Test
+    void headerDescribesRectangle() {
+        assertEquals(WORLD_SEED, index.getWorldSeed());
+        assertEquals(GRID, index.getGrid());
+        assertEquals(120L * 81, index.getEntryCount());
+        assertTrue(index.covers(MIN_GRID_X, MIN_GRID_Z));
+        assertTrue(index.covers(MAX_GRID_X, MAX_GRID_Z));
+        assertFalse(index.covers(MIN_GRID_X - 1, 0));
+        assertFalse(index.covers(0, MAX_GRID_Z + 1));
+    }
+
+    @Test
+    void boxesMatchPredictor() {
+        int span = GRID.cellSize * 16;
+        int[][] boxes = {
+            {0, 0, 0, 0},
+            {-1000, -1000, 1000, 1000},
+            {-20000, -9000, -17000, 3000},
+            // Corners and edges of the file, partly outside it
+            {MIN_GRID_X * span - 3000, MIN_GRID_Z * span - 3000, MIN_GRID_X * span + 2000, MIN_GRID_Z * span + 2000},
+            {MAX_GRID_X * span - 1000, MAX_GRID_Z * span - 1000, (MAX_GRID_X + 2) * span, (MAX_GRID_Z + 2) * span},
+            {MIN_GRID_X * span - 500, -100, MAX_GRID_X * span + 500, 100},
+            // Entirely outside the file
+            {100000, 100000, 104000, 101000},
+            // The whole file
+            {MIN_GRID_X * span, MIN_GRID_Z * span, (MAX_GRID_X + 1) * span, (MAX_GRID_Z + 1) * span},
+            // Empty
+            {10, 10, 9, 9}
+        };
+        for (int[] box : boxes) {
+            assertBoxMatches(box[0], box[1], box[2], box[3]);
+        }
+
+        // Pseudo-random boxes of every size across the file
+        long mix = 12345;
+        for (int i = 0; i < 200; i++) {
+            mix = mix * 6364136223846793005L + 1442695040888963407L;
+            int x = MIN_GRID_X * span + (int) Math.floorMod(mix >>> 20, (long) (MAX_GRID_X - MIN_GRID_X + 2) * span);
+            int z = MIN_GRID_Z * span + (int) Math.floorMod(mix >>> 11, (long) (MAX_GRID_Z - MIN_GRID_Z + 2) * span);
+            int w = (int) ((mix >>> 40) % 6000);
+            int h = (int) ((mix >>> 52) % 3000);
+            assertBoxMatches(x - w, z - h, x + w, z + h);
+        }
+    }
+
+    @Test
+    void boxesAcrossSparseBlocksMatchPredictor() {
+        long[] cells = cellsInEntryOrder();
+        // Entries on either side of each sparse index key after the first
+        for (int boundary = 4096; boundary < cells.length; boundary += 4096) {
+            for (int entry : new int[] {boundary - 1, boundary}) {
+                int gridX = DungeonSpawnPredictor.unpackChunkX(cells[entry]);
+                int gridZ = DungeonSpawnPredictor.unpackChunkZ(cells[entry]);
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(WORLD_SEED,
+                    DungeonSpawnPredictor.evaluateGridCell(WORLD_SEED, GRID, gridX, gridZ));
+                int blockX = (int) (block >> 32);
+                int blockZ = (int) block;
+                for (int radius : new int[] {0, 200, 700, 2500}) {
+                    assertBoxMatches(blockX - radius, blockZ - radius, blockX + radius, blockZ + radius);
+                }
+                assertEquals(1, index.predictDungeonsInBox(blockX, blockZ, blockX, blockZ).size());
+            }
+        }
+    }
+
+    @Test
+    void nearestMatchesPredictor() {
+        int span = GRID.cellSize * 16;
+        long mix = 777;
+        for (int i = 0; i < 300; i++) {
+            mix = mix * 6364136223846793005L + 1442695040888963407L;
+            // Mostly inside the file, some around and beyond its edges
+            int x = (MIN_GRID_X - 3) * span + (int) Math.floorMod(mix >>> 20, (long) (MAX_GRID_X - MIN_GRID_X + 7) * span);
+            int z = (MIN_GRID_Z - 3) * span + (int) Math.floorMod(mix >>> 11, (long) (MAX_GRID_Z - MIN_GRID_Z + 7) * span);
+            DungeonSpawn expected = DungeonSpawnPredictor.findNearestDungeon(WORLD_SEED, GRID, x, z);
+            assertEquals(describe(expected), describe(index.findNearestDungeon(x, z)), "query " + x + "," + z);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedOrCorruptFiles() throws IOException {
+        byte[] original = Files.readAllBytes(path);
+
+        assertRejected(new byte[0]);
+        assertRejected(Arrays.copyOf(original, 40));
+        assertRejected(Arrays.copyOf(original, 64));
+        assertRejected(Arrays.copyOf(original, original.length / 2));
+        assertRejected(Arrays.copyOf(original, original.length - 1));
+
+        assertRejected(patch(original, 0, 0x12345678));              // magic
+        assertRejected(patch(original, 4, 2));                       // version
+        assertRejected(patch(original, 32, MAX_GRID_X + 1));         // maxGridX, entry count no longer matches
+        assertRejected(patchLong(original, 40, 120L * 81 - 1));      // entryCount
+        assertRejected(patchLong(original, 48, 64));                 // sparseIndexOffset
+    }
+
+    private static byte[] patch(byte[] file, int position, int value) {
+        byte[] copy = file.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(position, value);
+        return copy;
+    }
+
+    private static byte[] patchLong(byte[] file, int position, long value) {
+        byte[] copy = file.clone();
+        ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putLong(position, value);
+        return copy;
+    }
+
+    private static void assertRejected(byte[] content) throws IOException {
+        Path corrupt = directory.resolve("corrupt.rldi");
+        try (FileChannel channel = FileChannel.open(corrupt, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(content));
+        }
+        assertThrows(IOException.class, () -> SpawnIndexFile.open(corrupt).close(), content.length + " bytes");
+    }
+}
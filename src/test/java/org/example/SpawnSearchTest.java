@@ -0,0 +1,163 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.example.DungeonSpawnPredictor.BasePointCandidate;
+import org.junit.jupiter.api.Test;
+
+class SpawnSearchTest {
+
+    private static final int RANGE = SpawnSearch.MAX_OFFSET + 10;
+
+    /**
+     * Every offset getNearbyCoord produces when the angle sweeps the full circle in steps of at
+     * most 0.002 blocks, plus the four axis angles, for every distance; indexed
+     * [offsetX + RANGE][offsetZ + RANGE]
+     */
+    private static boolean[][] sweptOffsets() {
+        boolean[][] reached = new boolean[2 * RANGE + 1][2 * RANGE + 1];
+        for (int distance = SpawnSearch.MIN_OFFSET; distance < SpawnSearch.MAX_OFFSET; distance++) {
+            int steps = (int) Math.ceil(2 * Math.PI * distance / 0.002);
+            for (int i = 0; i < steps; i++) {
+                sweep(reached, (double) i / steps * 2 * Math.PI, distance);
+            }
+            // nextDouble() can be exactly 0.25, 0.5 or 0.75, which the steps may not hit
+            for (double quarter = 0.25; quarter < 1; quarter += 0.25) {
+                sweep(reached, quarter * 2 * Math.PI, distance);
+            }
+        }
+        return reached;
+    }
+
+    private static void sweep(boolean[][] reached, double angle, int distance) {
+        int x = (int) (StrictMath.cos(angle) * distance);
+        int z = (int) (StrictMath.sin(angle) * distance);
+        reached[x + RANGE][z + RANGE] = true;
+    }
+
+    @Test
+    void reachableOffsetsMatchAngleSweep() {
+        boolean[][] reached = sweptOffsets();
+        int reachable = 0;
+        for (int x = -RANGE; x <= RANGE; x++) {
+            for (int z = -RANGE; z <= RANGE; z++) {
+                // Neither skips an offset the game can produce nor keeps one it can't
+                assertEquals(reached[x + RANGE][z + RANGE], SpawnSearch.isReachableOffset(x, z), "offset " + x + "," + z);
+                if (reached[x + RANGE][z + RANGE]) {
+                    reachable++;
+                }
+            }
+        }
+        assertTrue(reachable > 20000);
+
+        // Exactly MAX_OFFSET or MIN_OFFSET away along an axis, and the diagonals
+        int max = SpawnSearch.MAX_OFFSET;
+        int min = SpawnSearch.MIN_OFFSET;
+        for (int sign : new int[] {-1, 1}) {
+            assertFalse(SpawnSearch.isReachableOffset(sign * max, 0));
+            assertFalse(SpawnSearch.isReachableOffset(0, sign * max));
+            assertTrue(SpawnSearch.isReachableOffset(sign * (max - 1), 0));
+            assertTrue(SpawnSearch.isReachableOffset(0, sign * (max - 1)));
+            assertTrue(SpawnSearch.isReachableOffset(sign * min, 0));
+            assertTrue(SpawnSearch.isReachableOffset(sign * (min - 1), 0));
+            assertFalse(SpawnSearch.isReachableOffset(sign * (min - 2), 0));
+            assertFalse(SpawnSearch.isReachableOffset(sign * 71, sign * 71));
+            assertTrue(SpawnSearch.isReachableOffset(sign * 70, -sign * 70));
+        }
+        assertFalse(SpawnSearch.isReachableOffset(0, 0));
+        assertFalse(SpawnSearch.isReachableOffset(Integer.MIN_VALUE, 0));
+        assertFalse(SpawnSearch.isReachableOffset(Integer.MAX_VALUE, Integer.MIN_VALUE));
+    }
+
+    @Test
+    void predictedOffsetsAreReachable() {
+        Random random = new Random(5);
+        for (int i = 0; i < 200000; i++) {
+            long worldSeed = random.nextLong();
+            int chunkX = random.nextInt(200001) - 100000;
+            int chunkZ = random.nextInt(200001) - 100000;
+            long offset = DungeonSpawnPredictor.predictDungeonOffsetPacked(worldSeed, chunkX, chunkZ);
+            assertTrue(SpawnSearch.isReachableOffset((int) (offset >> 32), (int) offset),
+                "seed " + worldSeed + ", chunk " + chunkX + "," + chunkZ);
+        }
+    }
+
+    /**
+     * Candidates for a block found by evaluating every cell within a wide margin of it
+     */
+    private static List<String> bruteForceCandidates(long worldSeed, GridParams grid, int blockX, int blockZ) {
+        int margin = SpawnSearch.MAX_OFFSET / 16 + 2;
+        int minGridX = grid.gridIndex((blockX >> 4) - margin) - 1;
+        int maxGridX = grid.gridIndex((blockX >> 4) + margin) + 1;
+        int minGridZ = grid.gridIndex((blockZ >> 4) - margin) - 1;
+        int maxGridZ = grid.gridIndex((blockZ >> 4) + margin) + 1;
+
+        List<String> candidates = new ArrayList<String>();
+        for (int gridX = minGridX; gridX <= maxGridX; gridX++) {
+            for (int gridZ = minGridZ; gridZ <= maxGridZ; gridZ++) {
+                long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, grid, gridX, gridZ);
+                int chunkX = DungeonSpawnPredictor.unpackChunkX(chunk);
+                int chunkZ = DungeonSpawnPredictor.unpackChunkZ(chunk);
+                int offsetX = blockX - (chunkX * 16 + 4);
+                int offsetZ = blockZ - (chunkZ * 16 + 4);
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+                boolean matches = block == DungeonSpawnPredictor.packChunk(blockX, blockZ);
+                // A cell whose dungeon is at the block has to be a candidate whatever the geometry says
+                if (matches || SpawnSearch.isReachableOffset(offsetX, offsetZ)) {
+                    candidates.add(chunkX + "," + chunkZ + " " + offsetX + "," + offsetZ + " " + matches);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static List<String> describe(List<BasePointCandidate> candidates) {
+        List<String> described = new ArrayList<String>();
+        for (BasePointCandidate candidate : candidates) {
+            described.add(candidate.chunk.x + "," + candidate.chunk.z + " " + candidate.offsetX + ","
+                + candidate.offsetZ + " " + candidate.matchesPrediction);
+        }
+        return described;
+    }
+
+    private static void assertCandidatesMatch(long worldSeed, GridParams grid, int blockX, int blockZ) {
+        assertEquals(bruteForceCandidates(worldSeed, grid, blockX, blockZ),
+            describe(DungeonSpawnPredictor.findBasePointsCovering(worldSeed, grid, blockX, blockZ)),
+            "block " + blockX + "," + blockZ);
+    }
+
+    @Test
+    void reverseQueryMatchesEveryCellInRange() {
+        long worldSeed = -6021023L;
+        for (GridParams grid : new GridParams[] {GridParams.of(1), GridParams.of(10), GridParams.of(13)}) {
+            // Every dungeon entrance is found and matches
+            long[] chunks = new long[(int) DungeonSpawnPredictor.gridCellCount(4)];
+            DungeonSpawnPredictor.predictDungeonChunksPacked(worldSeed, grid, 4, chunks, 0);
+            for (long chunk : chunks) {
+                long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+                assertCandidatesMatch(worldSeed, grid, (int) (block >> 32), (int) block);
+
+                // Blocks exactly MAX_OFFSET and MAX_OFFSET - 1 from this base point along each axis
+                int baseX = DungeonSpawnPredictor.unpackChunkX(chunk) * 16 + 4;
+                int baseZ = DungeonSpawnPredictor.unpackChunkZ(chunk) * 16 + 4;
+                for (int reach : new int[] {SpawnSearch.MAX_OFFSET - 1, SpawnSearch.MAX_OFFSET}) {
+                    assertCandidatesMatch(worldSeed, grid, baseX + reach, baseZ);
+                    assertCandidatesMatch(worldSeed, grid, baseX - reach, baseZ);
+                    assertCandidatesMatch(worldSeed, grid, baseX, baseZ + reach);
+                    assertCandidatesMatch(worldSeed, grid, baseX, baseZ - reach);
+                }
+            }
+
+            // Arbitrary blocks, most far from the origin and negative
+            Random random = new Random(grid.spawnFrequency);
+            for (int i = 0; i < 300; i++) {
+                assertCandidatesMatch(worldSeed, grid, random.nextInt(2000001) - 1000000, random.nextInt(2000001) - 1000000);
+            }
+        }
+    }
+}
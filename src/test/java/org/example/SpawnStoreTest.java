@@ -0,0 +1,150 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.foreign.Arena;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class SpawnStoreTest {
+
+    private static final GridParams GRID = GridParams.of(10);
+
+    private static void assertEntry(DungeonSpawn expected, SpawnStore store, long index) {
+        String where = "index " + index;
+        assertEquals(expected.chunk.x, store.getChunkX(index), where);
+        assertEquals(expected.chunk.z, store.getChunkZ(index), where);
+        assertEquals(expected.blockX, store.getBlockX(index), where);
+        assertEquals(expected.blockZ, store.getBlockZ(index), where);
+        assertSame(expected.type, store.getTowerType(index), where);
+    }
+
+    @Test
+    void predictMatchesPredictDungeonSpawns() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (long worldSeed : new long[] {0, 42L, -7340981237L}) {
+                for (int radius : new int[] {0, 1, 4, 25}) {
+                    List<DungeonSpawn> expected = DungeonSpawnPredictor.predictDungeonSpawns(worldSeed, GRID, radius);
+                    for (int parallelism : new int[] {1, 3}) {
+                        try (SpawnStore store = SpawnStore.predict(worldSeed, GRID, -radius, -radius, radius, radius, pool, parallelism)) {
+                            assertEquals(expected.size(), store.size());
+                            for (int i = 0; i < expected.size(); i++) {
+                                assertEntry(expected.get(i), store, i);
+                                assertEquals(expected.get(i).toString(), store.get(i).toString());
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void predictFillsRectanglesRowMajor() {
+        long worldSeed = 987654321L;
+        // A single row, a single column and a rectangle whose rows span several fill blocks
+        int[][] rectangles = {{-4, -30, -4, 30}, {-20, 9, 20, 9}, {-2, -2100, 1, 2400}};
+        for (int[] r : rectangles) {
+            try (SpawnStore store = SpawnStore.predict(worldSeed, GRID, r[0], r[1], r[2], r[3])) {
+                long index = 0;
+                for (int gridX = r[0]; gridX <= r[2]; gridX++) {
+                    for (int gridZ = r[1]; gridZ <= r[3]; gridZ++) {
+                        long chunk = DungeonSpawnPredictor.evaluateGridCell(worldSeed, GRID, gridX, gridZ);
+                        long block = DungeonSpawnPredictor.spawnBlockOfChunk(worldSeed, chunk);
+                        assertEquals(DungeonSpawnPredictor.unpackChunkX(chunk), store.getChunkX(index));
+                        assertEquals(DungeonSpawnPredictor.unpackChunkZ(chunk), store.getChunkZ(index));
+                        assertEquals((int) (block >> 32), store.getBlockX(index));
+                        assertEquals((int) block, store.getBlockZ(index));
+                        index++;
+                    }
+                }
+                assertEquals(index, store.size());
+            }
+        }
+
+        try (SpawnStore empty = SpawnStore.predict(worldSeed, GRID, 3, 3, 2, 2)) {
+            assertEquals(0, empty.size());
+        }
+    }
+
+    @Test
+    void forEachVisitsEntriesInOrder() {
+        try (SpawnStore store = SpawnStore.predict(5L, GRID, -6, -6, 6, 6)) {
+            AtomicLong next = new AtomicLong(3);
+            store.forEach(3, 100, (index, chunkX, chunkZ, blockX, blockZ, towerType) -> {
+                assertEquals(next.getAndIncrement(), index);
+                assertEquals(store.getChunkX(index), chunkX);
+                assertEquals(store.getChunkZ(index), chunkZ);
+                assertEquals(store.getBlockX(index), blockX);
+                assertEquals(store.getBlockZ(index), blockZ);
+                assertEquals(store.getTowerType(index).ordinal(), towerType);
+            });
+            assertEquals(100, next.get());
+
+            AtomicLong count = new AtomicLong();
+            store.forEach((index, chunkX, chunkZ, blockX, blockZ, towerType) -> count.incrementAndGet());
+            assertEquals(store.size(), count.get());
+            store.forEach(store.size(), store.size(), (index, chunkX, chunkZ, blockX, blockZ, towerType) -> count.incrementAndGet());
+            assertEquals(store.size(), count.get());
+        }
+    }
+
+    @Test
+    void rejectsOutOfRangeIndices() {
+        try (SpawnStore store = SpawnStore.predict(5L, GRID, -2, -2, 2, 2)) {
+            long size = store.size();
+            SpawnStore.SpawnVisitor ignore = (index, chunkX, chunkZ, blockX, blockZ, towerType) -> { };
+
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(size));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getChunkX(size));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getBlockZ(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.getTowerType(size));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.set(size, 5L, 0));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.forEach(-1, 3, ignore));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.forEach(0, size + 1, ignore));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.forEach(4, 3, ignore));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SpawnStore(Arena.global(), -1));
+    }
+
+    @Test
+    void useAfterCloseFails() {
+        SpawnStore store = SpawnStore.predict(5L, GRID, -2, -2, 2, 2);
+        store.getBlockX(0);
+        store.close();
+        // Closing again is harmless
+        store.close();
+
+        assertEquals(25, store.size());
+        assertThrows(IllegalStateException.class, () -> store.get(0));
+        assertThrows(IllegalStateException.class, () -> store.getChunkZ(0));
+        assertThrows(IllegalStateException.class, () -> store.getTowerType(0));
+        assertThrows(IllegalStateException.class, () -> store.set(0, 5L, 0));
+        assertThrows(IllegalStateException.class,
+            () -> store.forEach((index, chunkX, chunkZ, blockX, blockZ, towerType) -> { }));
+    }
+
+    @Test
+    void callerArenaOutlivesStore() {
+        Arena arena = Arena.ofConfined();
+        SpawnStore store = new SpawnStore(arena, 3);
+        long chunk = DungeonSpawnPredictor.evaluateGridCell(11L, GRID, 1, -1);
+        store.set(2, 11L, chunk);
+        store.close();
+
+        // The caller's arena is still open, so the store is too
+        assertEquals(DungeonSpawnPredictor.unpackChunkX(chunk), store.getChunkX(2));
+        assertEquals(DungeonSpawnPredictor.unpackChunkZ(chunk), store.getChunkZ(2));
+        arena.close();
+        assertThrows(IllegalStateException.class, () -> store.getChunkX(2));
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.example.DungeonSpawnPredictor.ChunkCoord;
+import org.example.DungeonSpawnPredictor.DungeonSpawn;
+import org.junit.jupiter.api.Test;
+
+class TowerTypeTest {
+
+    /**
+     * The cumulative weight scan of the original predictTowerType()
+     */
+    private static TowerType reference(long worldSeed, int blockX, int blockZ) {
+        int roll = new Random(worldSeed * blockX * blockZ).nextInt(100);
+        int cumulative = 0;
+        for (TowerType type : TowerType.values()) {
+            cumulative += type.weight;
+            if (roll < cumulative) {
+                return type;
+            }
+        }
+        throw new AssertionError("Weights don't cover roll " + roll);
+    }
+
+    @Test
+    void predictionMatchesWeightScan() {
+        long[] worldSeeds = {0, 1, -1, 123456789L, -987654321987L, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long worldSeed : worldSeeds) {
+            for (int blockX = -3000; blockX <= 3000; blockX += 37) {
+                for (int blockZ = -3000; blockZ <= 3000; blockZ += 41) {
+                    TowerType expected = reference(worldSeed, blockX, blockZ);
+                    assertSame(expected, TowerType.predict(worldSeed, blockX, blockZ));
+                    assertEquals(expected.ordinal(), TowerType.predictOrdinal(worldSeed, blockX, blockZ));
+                    assertEquals(expected.name(), DungeonSpawnPredictor.predictTowerType(worldSeed, blockX, blockZ));
+                }
+            }
+        }
+    }
+
+    @Test
+    void weightsSumToTotal() {
+        int total = 0;
+        for (TowerType type : TowerType.values()) {
+            total += type.weight;
+        }
+        assertEquals(TowerType.TOTAL_WEIGHT, total);
+        assertEquals(TowerType.values().length, TowerType.COUNT);
+    }
+
+    @Test
+    void lookupsByOrdinalAndName() {
+        for (TowerType type : TowerType.values()) {
+            assertSame(type, TowerType.byOrdinal(type.ordinal()));
+            assertSame(type, TowerType.byName(type.name()));
+        }
+        assertNull(TowerType.byName("UNKNOWN"));
+        assertNull(TowerType.byName("rogue"));
+        assertNull(TowerType.byName(null));
+    }
+
+    @Test
+    void spawnTypeFollowsTowerTypeName() {
+        ChunkCoord chunk = new ChunkCoord(3, -4);
+        DungeonSpawn typed = new DungeonSpawn(chunk, 60, -50, TowerType.WITCH);
+        DungeonSpawn named = new DungeonSpawn(chunk, 60, -50, "WITCH");
+        DungeonSpawn unknown = new DungeonSpawn(chunk, 60, -50);
+
+        assertSame(TowerType.WITCH, typed.type);
+        assertSame(TowerType.WITCH, named.type);
+        assertNull(unknown.type);
+        assertNull(new DungeonSpawn(chunk, 60, -50, "UNKNOWN").type);
+
+        assertEquals("Dungeon [WITCH] at (60, ~50, -50) in " + chunk, typed.toString());
+        assertEquals(typed.toString(), named.toString());
+        assertEquals("Dungeon at (60, ~50, -50) in " + chunk, unknown.toString());
+        assertEquals("Dungeon at (60, ~50, -50) in " + chunk, new DungeonSpawn(chunk, 60, -50, (String) null).toString());
+    }
+
+    @Test
+    void customTowerNameKeepsItsLabel() {
+        ChunkCoord chunk = new ChunkCoord(-7, 12);
+        DungeonSpawn custom = new DungeonSpawn(chunk, -100, 190, "Ruined Keep");
+        DungeonSpawn lowerCase = new DungeonSpawn(chunk, -100, 190, "witch");
+
+        assertNull(custom.type);
+        assertEquals("Ruined Keep", custom.towerType);
+        assertEquals("Dungeon [Ruined Keep] at (-100, ~50, 190) in " + chunk, custom.toString());
+        assertNull(lowerCase.type);
+        assertEquals("Dungeon [witch] at (-100, ~50, 190) in " + chunk, lowerCase.toString());
+    }
+
+    @Test
+    void countsByTypeMatchBox() {
+        GridParams grid = GridParams.of(10);
+        List<DungeonSpawn> spawns = DungeonSpawnPredictor.predictDungeonsInBox(42L, grid, -20000, -15000, 18000, 9000);
+        Map<String, Long> expected = new TreeMap<String, Long>();
+        for (DungeonSpawn spawn : spawns) {
+            expected.merge(spawn.type.name(), 1L, Long::sum);
+        }
+        assertTrue(expected.size() > 1);
+        assertEquals(expected, DungeonSpawnPredictor.countDungeonsInBoxByTowerType(42L, grid, -20000, -15000, 18000, 9000));
+    }
+}